@@ -0,0 +1,48 @@
+package com.pms.dio.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pms.dio.dto.BeerDTO;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerJsonBenchmark {
+
+	@Param({ "10", "1000" })
+	public int listSize;
+
+	private ObjectWriter writer;
+
+	private List<BeerDTO> beers;
+
+	@Setup
+	public void setUp() {
+		writer = new ObjectMapper().writerFor(new ObjectMapper().getTypeFactory().constructCollectionType(List.class, BeerDTO.class));
+		beers = IntStream.range(0, listSize).mapToObj(index -> {
+			BeerDTO beerDTO = BenchmarkContext.beer(index);
+			beerDTO.setId((long) index);
+			return beerDTO;
+		}).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public byte[] serializeList() throws JsonProcessingException {
+		return writer.writeValueAsBytes(beers);
+	}
+}
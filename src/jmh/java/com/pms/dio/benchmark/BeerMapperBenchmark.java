@@ -0,0 +1,44 @@
+package com.pms.dio.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BeerMapperBenchmark {
+
+	private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+	private BeerDTO beerDTO;
+
+	private Beer beer;
+
+	@Setup
+	public void setUp() {
+		beerDTO = BenchmarkContext.beer(1);
+		beerDTO.setId(1L);
+		beer = beerMapper.toModel(beerDTO);
+	}
+
+	@Benchmark
+	public BeerDTO toDTO() {
+		return beerMapper.toDTO(beer);
+	}
+
+	@Benchmark
+	public Beer toModel() {
+		return beerMapper.toModel(beerDTO);
+	}
+}
@@ -0,0 +1,85 @@
+package com.pms.dio.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pms.dio.dto.BeerDTO;
+
+/**
+ * Serialization cost and wire size of a catalog page per representation. The payload size of one page
+ * is printed at the end of each trial; compare {@code serialize} across {@code format} and {@code gzip}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerPayloadBenchmark {
+
+	public enum Format {
+		JSON, CBOR
+	}
+
+	@Param({ "100", "1000" })
+	public int listSize;
+
+	@Param
+	public Format format;
+
+	@Param({ "false", "true" })
+	public boolean gzip;
+
+	private ObjectWriter writer;
+
+	private List<BeerDTO> beers;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+	@Setup
+	public void setUp() {
+		Jackson2ObjectMapperBuilder builder = format == Format.CBOR ? Jackson2ObjectMapperBuilder.cbor() : Jackson2ObjectMapperBuilder.json();
+		ObjectMapper objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, BeerDTO.class));
+		Instant updatedAt = Instant.parse("2026-01-01T10:00:00Z");
+		beers = IntStream.range(0, listSize).mapToObj(index -> {
+			BeerDTO beerDTO = BenchmarkContext.beer(index);
+			beerDTO.setId((long) index);
+			beerDTO.setVersion((long) index % 7);
+			beerDTO.setUpdatedAt(updatedAt.plusMillis(index));
+			return beerDTO;
+		}).collect(Collectors.toList());
+	}
+
+	@TearDown
+	public void reportPayloadSize() throws IOException {
+		System.out.printf("%n%s%s payload of %d beers: %d bytes%n", format, gzip ? "+gzip" : "", listSize, serialize());
+	}
+
+	@Benchmark
+	public int serialize() throws IOException {
+		buffer.reset();
+		try (OutputStream out = gzip ? new GZIPOutputStream(buffer, 8192) : buffer) {
+			writer.writeValue(out, beers);
+		}
+		return buffer.size();
+	}
+}
@@ -0,0 +1,54 @@
+package com.pms.dio.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerSearchCriteriaDTO;
+import com.pms.dio.dto.BeerSearchResultDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.service.BeerChangedEvent;
+import com.pms.dio.service.BeerSearchIndex;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerSearchBenchmark {
+
+	@Param({ "1000000" })
+	private int catalogSize;
+
+	@Param({ "beer 4242", "be", "brand 42", "stout" })
+	private String query;
+
+	private BeerSearchIndex beerSearchIndex;
+
+	private BeerSearchCriteriaDTO criteria;
+
+	@Setup
+	public void setUp() {
+		beerSearchIndex = new BeerSearchIndex();
+		for (int i = 0; i < catalogSize; i++) {
+			BeerDTO beer = BenchmarkContext.beer(i);
+			beer.setId((long) i + 1);
+			beer.setQuantity(i % (beer.getMax() + 1));
+			beerSearchIndex.onBeerChanged(new BeerChangedEvent(BeerChangeType.CREATED, beer, 0));
+		}
+		criteria = new BeerSearchCriteriaDTO();
+		criteria.setQ(query);
+		criteria.setMaxFillRatio(0.2);
+	}
+
+	@Benchmark
+	public BeerSearchResultDTO search() {
+		return beerSearchIndex.search(criteria);
+	}
+}
@@ -0,0 +1,68 @@
+package com.pms.dio.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.service.BeerService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerServiceBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int catalogSize;
+
+	@Param({ "caffeine", "none" })
+	public String cache;
+
+	private ConfigurableApplicationContext context;
+
+	private BeerService beerService;
+
+	private long firstId;
+
+	@Setup
+	public void setUp() throws Exception {
+		context = BenchmarkContext.start(Collections.singletonMap("spring.cache.type", cache));
+		beerService = context.getBean(BeerService.class);
+		BenchmarkContext.seed(beerService, catalogSize);
+		firstId = beerService.findByName(BenchmarkContext.beerName(0)).getId();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public BeerDTO findByName() throws Exception {
+		return beerService.findByName(BenchmarkContext.beerName(ThreadLocalRandom.current().nextInt(catalogSize)));
+	}
+
+	@Benchmark
+	public List<BeerDTO> listAll() {
+		return beerService.listAll();
+	}
+
+	@Benchmark
+	public BeerDTO incrementAndDecrement() throws Exception {
+		long id = firstId + ThreadLocalRandom.current().nextInt(catalogSize);
+		beerService.increment(id, 1);
+		return beerService.decrement(id, 1);
+	}
+}
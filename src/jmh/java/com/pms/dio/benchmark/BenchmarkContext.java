@@ -0,0 +1,63 @@
+package com.pms.dio.benchmark;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pms.dio.BeerApiApplication;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.service.BeerService;
+
+final class BenchmarkContext {
+
+	private BenchmarkContext() {
+	}
+
+	/**
+	 * Boots the application without a web server on a fresh in-memory database. A {@code null} override
+	 * removes a default, e.g. the datasource URL when a profile provides its own.
+	 */
+	static ConfigurableApplicationContext start(Map<String, Object> overrides) {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+		properties.put("spring.main.banner-mode", "off");
+		properties.put("spring.devtools.restart.enabled", false);
+		properties.put("logging.level.root", "WARN");
+		properties.putAll(overrides);
+		properties.values().removeIf(Objects::isNull);
+		String[] args = properties.entrySet().stream()
+				.map(property -> "--" + property.getKey() + "=" + property.getValue())
+				.toArray(String[]::new);
+		return new SpringApplicationBuilder(BeerApiApplication.class)
+				.web(WebApplicationType.NONE)
+				.run(args);
+	}
+
+	static void seed(BeerService beerService, int catalogSize) throws Exception {
+		Iterator<BeerDTO> beers = IntStream.range(0, catalogSize).mapToObj(BenchmarkContext::beer).iterator();
+		beerService.importBeers(beers);
+	}
+
+	static BeerDTO beer(int index) {
+		BeerType[] types = BeerType.values();
+		return BeerDTO.builder()
+				.name(beerName(index))
+				.brand("Brand " + (index % 100))
+				.max(500)
+				.quantity(100)
+				.type(types[index % types.length])
+				.build();
+	}
+
+	static String beerName(int index) {
+		return "Beer " + index;
+	}
+}
@@ -0,0 +1,117 @@
+package com.pms.dio.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.service.BeerService;
+
+/**
+ * Time until the application is ready to serve a catalog of {@code catalogSize} beers: restarting on the
+ * {@code prod} profile's H2 file versus booting in memory and importing the catalog again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class StartupBenchmark {
+
+	public enum Storage {
+		FILE, IN_MEMORY_RELOAD
+	}
+
+	@Param({ "1000000" })
+	public int catalogSize;
+
+	@Param
+	public Storage storage;
+
+	private Path dataDir;
+
+	private ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void createCatalog() throws IOException {
+		if (storage != Storage.FILE) {
+			return;
+		}
+		dataDir = Files.createTempDirectory("beer-startup");
+		try (ConfigurableApplicationContext seeding = startProd()) {
+			JdbcTemplate jdbcTemplate = seeding.getBean(JdbcTemplate.class);
+			jdbcTemplate.update("insert into beer (id, name, brand, max, quantity, type, version, updated_at) "
+					+ "select x, 'Beer ' || (x - 1), 'Brand ' || mod(x - 1, 100), 500, 100, " + typeOf("x - 1") + ", 0, current_timestamp "
+					+ "from system_range(1, ?)", catalogSize);
+			jdbcTemplate.execute("alter sequence beer_sequence restart with " + (catalogSize + 1));
+		}
+	}
+
+	@Benchmark
+	public ConfigurableApplicationContext start() throws Exception {
+		if (storage == Storage.FILE) {
+			context = startProd();
+		} else {
+			context = BenchmarkContext.start(Collections.emptyMap());
+			BenchmarkContext.seed(context.getBean(BeerService.class), catalogSize);
+		}
+		return context;
+	}
+
+	@TearDown(Level.Invocation)
+	public void stop() {
+		context.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCatalog() throws IOException {
+		if (dataDir == null) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(dataDir)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private ConfigurableApplicationContext startProd() {
+		Map<String, Object> overrides = new HashMap<>();
+		overrides.put("spring.profiles.active", "prod");
+		overrides.put("beer.data-dir", dataDir);
+		overrides.put("spring.datasource.url", null);
+		return BenchmarkContext.start(overrides);
+	}
+
+	private static String typeOf(String ordinal) {
+		BeerType[] types = BeerType.values();
+		return IntStream.range(0, types.length)
+				.mapToObj(i -> "when " + i + " then '" + types[i].name() + "'")
+				.collect(Collectors.joining(" ", "case mod(" + ordinal + ", " + types.length + ") ", " end"));
+	}
+}
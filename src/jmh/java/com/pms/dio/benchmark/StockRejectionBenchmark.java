@@ -0,0 +1,79 @@
+package com.pms.dio.benchmark;
+
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.service.BeerService;
+
+/**
+ * Throughput of rejected decrements and unknown-id lookups, the outcomes that used to pay for a stack
+ * trace and a formatted message each. The write-behind mode takes the database out of the rejection
+ * path, leaving mostly the exception cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StockRejectionBenchmark {
+
+	@Param({ "sync", "write-behind" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+
+	private BeerService beerService;
+
+	private long emptyBeerId;
+
+	@Setup
+	public void setUp() throws Exception {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("beer.stock.write-behind.enabled", !"sync".equals(mode));
+		properties.put("beer.stock.write-behind.beer-ids", "1");
+		properties.put("beer.stock.write-behind.journal-dir", Files.createTempDirectory("stock-journal").toString());
+		context = BenchmarkContext.start(properties);
+		beerService = context.getBean(BeerService.class);
+		BenchmarkContext.seed(beerService, 1);
+		emptyBeerId = beerService.findByName(BenchmarkContext.beerName(0)).getId();
+		beerService.decrement(emptyBeerId, beerService.findByName(BenchmarkContext.beerName(0)).getQuantity());
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Exception rejectDecrement() throws Exception {
+		try {
+			beerService.decrement(emptyBeerId, 1);
+			throw new IllegalStateException("Decrement of an empty beer was accepted");
+		} catch (BeerStockExceededException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Exception rejectUnknownName() {
+		try {
+			beerService.findByName("missing");
+			throw new IllegalStateException("Unknown beer was found");
+		} catch (BeerNotFoundException e) {
+			return e;
+		}
+	}
+}
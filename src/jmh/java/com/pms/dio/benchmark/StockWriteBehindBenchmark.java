@@ -0,0 +1,72 @@
+package com.pms.dio.benchmark;
+
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pms.dio.config.StockBufferProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.service.BeerService;
+import com.pms.dio.service.StockBuffer;
+
+/**
+ * Increments and decrements one hot beer from several threads, through the
+ * synchronous conditional update or through the write-behind buffer. The beer's
+ * id is only known once it is seeded, so it is buffered from then on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class StockWriteBehindBenchmark {
+
+	@Param({ "sync", "write-behind", "write-behind-nofsync" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+
+	private BeerService beerService;
+
+	private long hotBeerId;
+
+	@Setup
+	public void setUp() throws Exception {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("beer.stock.write-behind.enabled", !"sync".equals(mode));
+		properties.put("beer.stock.write-behind.fsync", "write-behind".equals(mode));
+		properties.put("beer.stock.write-behind.journal-dir", Files.createTempDirectory("stock-journal").toString());
+		context = BenchmarkContext.start(properties);
+		beerService = context.getBean(BeerService.class);
+		BenchmarkContext.seed(beerService, 1);
+		hotBeerId = beerService.findByName(BenchmarkContext.beerName(0)).getId();
+		context.getBean(StockBufferProperties.class).setBeerIds(Set.of(hotBeerId));
+		if (context.getBean(StockBuffer.class).isBuffered(hotBeerId) == "sync".equals(mode)) {
+			throw new IllegalStateException("Beer " + hotBeerId + " is not buffered as mode " + mode + " requires");
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public BeerDTO incrementAndDecrement() throws Exception {
+		beerService.increment(hotBeerId, 1);
+		return beerService.decrement(hotBeerId, 1);
+	}
+}
@@ -0,0 +1,25 @@
+package com.pms.dio.actuator;
+
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Aspect
+@Component
+public class BeerExceptionMetrics {
+
+	static final String BEER_EXCEPTIONS_METRIC = "beer.exceptions";
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@AfterThrowing(pointcut = "within(com.pms.dio.service.BeerService)", throwing = "exception")
+	public void countException(Exception exception) {
+		if (exception.getClass().getPackageName().startsWith("com.pms.dio.exception")) {
+			registry.counter(BEER_EXCEPTIONS_METRIC, "exception", exception.getClass().getSimpleName()).increment();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.pms.dio.actuator;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerTypeStock;
+import com.pms.dio.service.BeerService;
+import com.pms.dio.service.StockAdjustmentStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Component
+public class BeerStockMetrics implements MeterBinder {
+
+	private static final Duration STOCK_REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerService beerService;
+
+	private volatile Map<BeerType, Long> stockByType = new EnumMap<>(BeerType.class);
+
+	private volatile long stockRefreshedAt;
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (BeerType type : BeerType.values()) {
+			Gauge.builder("beer.stock", this, metrics -> metrics.stockOf(type))
+					.description("Units in stock per beer type")
+					.tag("type", type.name())
+					.register(registry);
+		}
+		StockAdjustmentStats stats = beerService.getStockAdjustmentStats();
+		FunctionCounter.builder("beer.stock.adjustments", stats, StockAdjustmentStats::getApplied)
+				.tag("result", "applied").register(registry);
+		FunctionCounter.builder("beer.stock.adjustments", stats, StockAdjustmentStats::getRejected)
+				.tag("result", "rejected").register(registry);
+		FunctionCounter.builder("beer.stock.adjustments", stats, StockAdjustmentStats::getNotFound)
+				.tag("result", "not_found").register(registry);
+	}
+
+	private double stockOf(BeerType type) {
+		long now = System.nanoTime();
+		if (now - stockRefreshedAt > STOCK_REFRESH_INTERVAL.toNanos()) {
+			Map<BeerType, Long> refreshed = new EnumMap<>(BeerType.class);
+			for (BeerTypeStock typeStock : beerRepo.sumQuantityByType()) {
+				refreshed.put(typeStock.getType(), typeStock.getQuantity());
+			}
+			stockByType = refreshed;
+			stockRefreshedAt = now;
+		}
+		return stockByType.getOrDefault(type, 0L);
+	}
+}
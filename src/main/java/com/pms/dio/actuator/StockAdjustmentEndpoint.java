@@ -0,0 +1,23 @@
+package com.pms.dio.actuator;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.pms.dio.service.BeerService;
+
+@Component
+@Endpoint(id = "stockadjustments")
+public class StockAdjustmentEndpoint {
+
+	@Autowired
+	private BeerService beerService;
+
+	@ReadOperation
+	public Map<String, Long> stockAdjustments() {
+		return beerService.getStockAdjustmentStats().snapshot();
+	}
+}
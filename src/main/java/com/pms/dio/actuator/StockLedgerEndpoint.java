@@ -0,0 +1,55 @@
+package com.pms.dio.actuator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.pms.dio.service.BeerService;
+import com.pms.dio.service.StockLedger;
+
+/**
+ * Replays the ledger and lists the beers whose current quantity does not match it; a write triggers a
+ * snapshot right away.
+ */
+@Component
+@Endpoint(id = "stockledger")
+public class StockLedgerEndpoint {
+
+	@Autowired
+	private StockLedger stockLedger;
+
+	@Autowired
+	private BeerService beerService;
+
+	@ReadOperation
+	public Map<String, Object> verify() {
+		Map<Long, Integer> replayed = stockLedger.replay();
+		List<Map<String, Object>> mismatches = new ArrayList<>();
+		beerService.exportAll(beer -> {
+			Integer ledgerQuantity = replayed.get(beer.getId());
+			if (ledgerQuantity == null || ledgerQuantity != beer.getQuantity()) {
+				Map<String, Object> mismatch = new LinkedHashMap<>();
+				mismatch.put("id", beer.getId());
+				mismatch.put("quantity", beer.getQuantity());
+				mismatch.put("ledgerQuantity", ledgerQuantity);
+				mismatches.add(mismatch);
+			}
+		});
+		Map<String, Object> verification = new LinkedHashMap<>();
+		verification.put("replayedBeers", replayed.size());
+		verification.put("mismatches", mismatches);
+		return verification;
+	}
+
+	@WriteOperation
+	public Map<String, Integer> snapshot() {
+		return Map.of("snapshots", stockLedger.snapshot());
+	}
+}
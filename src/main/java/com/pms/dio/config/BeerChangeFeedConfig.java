@@ -0,0 +1,10 @@
+package com.pms.dio.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BeerChangeFeedProperties.class)
+public class BeerChangeFeedConfig {
+
+}
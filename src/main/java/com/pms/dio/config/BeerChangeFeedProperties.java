@@ -0,0 +1,20 @@
+package com.pms.dio.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "beer.changes")
+public class BeerChangeFeedProperties {
+
+	private int capacity = 10000;
+
+	private Duration streamTimeout = Duration.ofMinutes(30);
+
+	private int dispatchThreads = 4;
+
+	private long subscriberMaxLag = 1000;
+}
@@ -0,0 +1,16 @@
+package com.pms.dio.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "beer.reservations")
+public class BeerReservationProperties {
+
+	private Duration defaultTtl = Duration.ofMinutes(15);
+
+	private Duration maxTtl = Duration.ofHours(2);
+}
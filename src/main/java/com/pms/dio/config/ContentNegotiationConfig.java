@@ -0,0 +1,22 @@
+package com.pms.dio.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Serves every endpoint as CBOR when the client sends {@code Accept: application/cbor}; JSON stays the
+ * default. The CBOR mapper is built from the same customized builder as the JSON one, so both formats
+ * carry the same fields and date handling.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+}
@@ -0,0 +1,16 @@
+package com.pms.dio.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "beer.idempotency")
+public class IdempotencyProperties {
+
+	private long maximumKeys = 100000;
+
+	private Duration ttl = Duration.ofHours(24);
+}
@@ -0,0 +1,54 @@
+package com.pms.dio.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@ConfigurationProperties(prefix = "beer.rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+
+	private String clientHeader;
+
+	private Bucket client = new Bucket(50, 25);
+
+	private Bucket beer = new Bucket(1000, 500);
+
+	private long maximumBuckets = 100000;
+
+	private Duration idleTimeout = Duration.ofMinutes(10);
+
+	private Concurrency concurrency = new Concurrency();
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Bucket {
+
+		private int capacity;
+
+		private double refillPerSecond;
+	}
+
+	@Data
+	public static class Concurrency {
+
+		private int initialLimit = 12;
+
+		private int minLimit = 1;
+
+		private int maxLimit = 16;
+
+		private Duration latencyThreshold = Duration.ofMillis(500);
+
+		private double backoffRatio = 0.9;
+
+		private Duration retryAfter = Duration.ofSeconds(1);
+	}
+}
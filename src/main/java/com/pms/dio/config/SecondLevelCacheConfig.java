@@ -0,0 +1,64 @@
+package com.pms.dio.config;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.pms.dio.config.SecondLevelCacheProperties.Region;
+import com.pms.dio.model.BeerMetadata;
+
+/**
+ * Creates the Hibernate second-level cache regions in a JCache manager of their own and hands it to
+ * Hibernate, so every application context gets private regions. Caffeine regions are bounded by size
+ * and expire after write; other providers only get the expiry. Only the immutable
+ * {@link BeerMetadata} is cached: beers and query results would be invalidated by every stock
+ * mutation, and name lookups already have the {@code beersByName} cache.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+	@Bean(destroyMethod = "close")
+	public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+		CachingProvider provider = Caching.getCachingProvider(properties.getProvider());
+		CacheManager cacheManager = provider.getCacheManager(URI.create("beer-second-level-cache-" + UUID.randomUUID()),
+				provider.getDefaultClassLoader());
+		createRegion(cacheManager, BeerMetadata.CACHE_REGION, properties.getEntities());
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+		return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+	}
+
+	private static void createRegion(CacheManager cacheManager, String name, Region region) {
+		if (cacheManager.getCachingProvider() instanceof CaffeineCachingProvider) {
+			CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+			configuration.setStoreByValue(false);
+			configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+			configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+			cacheManager.createCache(name, configuration);
+		} else {
+			cacheManager.createCache(name, new MutableConfiguration<>()
+					.setStoreByValue(false)
+					.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+							new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, region.getExpireAfterWrite().toMillis()))));
+		}
+	}
+}
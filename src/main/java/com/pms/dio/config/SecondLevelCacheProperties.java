@@ -0,0 +1,28 @@
+package com.pms.dio.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@ConfigurationProperties(prefix = "beer.second-level-cache")
+public class SecondLevelCacheProperties {
+
+	private String provider = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+	private Region entities = new Region(10000, Duration.ofMinutes(10));
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Region {
+
+		private long maximumSize;
+
+		private Duration expireAfterWrite;
+	}
+}
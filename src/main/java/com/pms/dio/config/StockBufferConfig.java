@@ -0,0 +1,12 @@
+package com.pms.dio.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StockBufferProperties.class)
+public class StockBufferConfig {
+
+}
@@ -0,0 +1,26 @@
+package com.pms.dio.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "beer.stock.write-behind")
+public class StockBufferProperties {
+
+	private boolean enabled = false;
+
+	private Set<Long> beerIds = new HashSet<>();
+
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+	private Path journalDir = Paths.get("stock-journal");
+
+	private boolean fsync = true;
+}
@@ -0,0 +1,16 @@
+package com.pms.dio.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "beer.ledger")
+public class StockLedgerProperties {
+
+	private Duration snapshotInterval = Duration.ofMinutes(5);
+
+	private Duration snapshotLag = Duration.ofMinutes(1);
+}
@@ -0,0 +1,42 @@
+package com.pms.dio.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.pms.dio.enums.WebExecutionMode;
+
+/**
+ * Selects how Tomcat runs request handlers. In {@code virtual} mode each request gets its own virtual
+ * thread, so a handler blocked on JDBC no longer holds one of the few hundred pooled worker threads.
+ * The project still targets Java 11; virtual threads are looked up reflectively and the application
+ * refuses to start in that mode on a runtime older than Java 21.
+ */
+@Configuration
+@EnableConfigurationProperties(WebExecutionProperties.class)
+public class WebExecutionConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<ProtocolHandler> executionModeCustomizer(WebExecutionProperties properties) {
+		ExecutorService executor = properties.getExecutionMode() == WebExecutionMode.VIRTUAL ? newVirtualThreadPerTaskExecutor() : null;
+		return protocolHandler -> {
+			if (executor != null) {
+				protocolHandler.setExecutor(executor);
+			}
+		};
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(String.format("beer.web.execution-mode=virtual requires Java 21 or later, running on %s",
+					Runtime.version()), e);
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.pms.dio.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.pms.dio.enums.WebExecutionMode;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "beer.web")
+public class WebExecutionProperties {
+
+	private WebExecutionMode executionMode = WebExecutionMode.PLATFORM;
+}
@@ -0,0 +1,56 @@
+package com.pms.dio.controller;
+
+import com.pms.dio.config.RateLimitProperties.Concurrency;
+
+/**
+ * Caps the number of requests in flight and adapts the cap to measured latency: additive increase
+ * while requests finish under the latency threshold and the cap is actually in use, multiplicative
+ * decrease when one runs slower or fails. Requests over the cap are refused, never queued.
+ */
+class AdaptiveConcurrencyLimiter {
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long latencyThresholdNanos;
+
+	private final double backoffRatio;
+
+	private int limit;
+
+	private int inFlight;
+
+	AdaptiveConcurrencyLimiter(Concurrency concurrency) {
+		this.minLimit = concurrency.getMinLimit();
+		this.maxLimit = concurrency.getMaxLimit();
+		this.latencyThresholdNanos = concurrency.getLatencyThreshold().toNanos();
+		this.backoffRatio = concurrency.getBackoffRatio();
+		this.limit = Math.max(minLimit, Math.min(maxLimit, concurrency.getInitialLimit()));
+	}
+
+	synchronized boolean tryAcquire() {
+		if (inFlight >= limit) {
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	synchronized void release(long latencyNanos, boolean failed) {
+		if (failed || latencyNanos > latencyThresholdNanos) {
+			limit = Math.max(minLimit, (int) (limit * backoffRatio));
+		} else if (inFlight * 2 >= limit) {
+			limit = Math.min(maxLimit, limit + 1);
+		}
+		inFlight--;
+	}
+
+	synchronized int getLimit() {
+		return limit;
+	}
+
+	synchronized int getInFlight() {
+		return inFlight;
+	}
+}
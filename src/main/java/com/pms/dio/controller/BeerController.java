@@ -1,49 +1,181 @@
 package com.pms.dio.controller;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.Validator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pms.dio.dto.BeerChangeDTO;
 import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerImportDTO;
+import com.pms.dio.dto.BeerImportResultDTO;
+import com.pms.dio.dto.BeerPageDTO;
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.dto.BeerReservationRequestDTO;
+import com.pms.dio.dto.BeerSearchCriteriaDTO;
+import com.pms.dio.dto.BeerSearchResultDTO;
+import com.pms.dio.dto.BeerStockSummaryDTO;
+import com.pms.dio.dto.BeerWarehouseStockDTO;
+import com.pms.dio.dto.BeerWarehouseTransferDTO;
 import com.pms.dio.dto.QuantityDTO;
+import com.pms.dio.dto.StockAsOfDTO;
+import com.pms.dio.dto.StockLedgerEntryDTO;
+import com.pms.dio.dto.StockMovementBatchDTO;
+import com.pms.dio.dto.StockMovementResultDTO;
+import com.pms.dio.enums.BeerExportFormat;
+import com.pms.dio.enums.BeerSort;
 import com.pms.dio.exception.BeerAlreadyRegisteredException;
+import com.pms.dio.exception.BeerChangesExpiredException;
 import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerReservationConflictException;
+import com.pms.dio.exception.BeerReservationNotFoundException;
 import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerVersionMismatchException;
+import com.pms.dio.exception.BeerWarehouseConflictException;
+import com.pms.dio.exception.BeerWarehouseStockExceededException;
+import com.pms.dio.exception.InvalidCursorException;
+import com.pms.dio.service.BeerChangeFeed;
+import com.pms.dio.service.BeerReservationService;
+import com.pms.dio.service.BeerSearchIndex;
 import com.pms.dio.service.BeerService;
+import com.pms.dio.service.BeerWarehouseService;
+import com.pms.dio.service.StockLedger;
 
 @RestController
 @RequestMapping("/api/v1/beers")
 public class BeerController implements BeerControllerDocs {
 
+	static final String NDJSON_VALUE = "application/x-ndjson";
+
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	@Autowired
     private BeerService beerService;
 
+    @Autowired
+    private BeerReservationService beerReservationService;
+
+    @Autowired
+    private BeerWarehouseService beerWarehouseService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private BeerSearchIndex beerSearchIndex;
+
+    @Autowired
+    private BeerChangeFeed beerChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
         return beerService.createBeer(beerDTO);
     }
 
-    @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BeerImportResultDTO importBeers(@RequestBody @Valid BeerImportDTO beerImportDTO) throws BeerAlreadyRegisteredException {
+        return beerService.importBeers(beerImportDTO.getBeers());
+    }
+
+    @PostMapping(value = "/bulk", consumes = NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public BeerImportResultDTO importBeers(HttpServletRequest request) throws IOException, BeerAlreadyRegisteredException {
+        try (MappingIterator<BeerDTO> beers = objectMapper.readerFor(BeerDTO.class).readValues(request.getInputStream())) {
+            return beerService.importBeers(new ValidatingIterator<>(beers, validator));
+        }
+    }
+
+    @GetMapping({ "/{name}", "/by-name/{name}" })
+    public ResponseEntity<BeerDTO> findByName(@PathVariable String name) throws BeerNotFoundException {
+        return withValidators(beerService.findByName(name));
     }
 
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<List<BeerDTO>> listBeers(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(defaultValue = "ID") BeerSort sort) throws InvalidCursorException {
+        BeerPageDTO beerPage = beerService.listPage(cursor, size, sort);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(BeerETags.of(beerPage.getContent(), beerPage.getNextCursor()));
+        if (beerPage.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, beerPage.getNextCursor());
+        }
+        return response.body(beerPage.getContent());
+    }
+
+    @GetMapping("/search")
+    public BeerSearchResultDTO searchBeers(@Valid BeerSearchCriteriaDTO criteria) {
+        return beerSearchIndex.search(criteria);
+    }
+
+    @GetMapping("/stats/types")
+    public List<BeerStockSummaryDTO> stockByType() {
+        return beerService.stockByType();
+    }
+
+    @GetMapping("/stats/brands")
+    public List<BeerStockSummaryDTO> stockByBrand() {
+        return beerService.stockByBrand();
+    }
+
+    @GetMapping("/stats/low-stock")
+    public List<BeerDTO> lowStock(@RequestParam(defaultValue = "0.2") double maxFillRatio,
+            @RequestParam(defaultValue = "100") int size) {
+        return beerService.findLowStock(maxFillRatio, size);
+    }
+
+    @GetMapping("/changes")
+    public List<BeerChangeDTO> listChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) throws BeerChangesExpiredException {
+        return beerChangeFeed.changesSince(since, limit);
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) throws BeerChangesExpiredException {
+        return beerChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping("/export")
+    public void exportBeers(@RequestParam(defaultValue = "NDJSON") BeerExportFormat format, HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        try (BeerExportWriter writer = BeerExportWriter.of(format, objectMapper, response.getOutputStream())) {
+            beerService.exportAll(writer);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -53,11 +185,91 @@ public class BeerController implements BeerControllerDocs {
     }
 
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+        Long expectedVersion = BeerETags.expectedVersion(id, ifMatch);
+        return withValidators(expectedVersion == null
+                ? beerService.increment(id, quantityDTO.getQuantity())
+                : beerService.increment(id, quantityDTO.getQuantity(), expectedVersion));
     }
     @PatchMapping("/{id}/decrement")
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerStockExceededException, BeerNotFoundException {
-    	return beerService.decrement(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws BeerStockExceededException, BeerNotFoundException, BeerVersionMismatchException {
+        Long expectedVersion = BeerETags.expectedVersion(id, ifMatch);
+        return withValidators(expectedVersion == null
+                ? beerService.decrement(id, quantityDTO.getQuantity())
+                : beerService.decrement(id, quantityDTO.getQuantity(), expectedVersion));
+    }
+
+    @PostMapping("/{id}/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BeerReservationDTO reserve(@PathVariable Long id, @RequestBody @Valid BeerReservationRequestDTO reservationRequestDTO)
+            throws BeerNotFoundException, BeerStockExceededException, BeerReservationConflictException {
+        return beerReservationService.reserve(id, reservationRequestDTO.getQuantity(), reservationRequestDTO.getTtl());
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<BeerDTO> confirmReservation(@PathVariable Long reservationId)
+            throws BeerReservationNotFoundException, BeerReservationConflictException, BeerNotFoundException {
+        return withValidators(beerReservationService.confirm(reservationId));
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseReservation(@PathVariable Long reservationId) throws BeerReservationNotFoundException {
+        beerReservationService.release(reservationId);
+    }
+
+    @GetMapping("/{id}/ledger")
+    public List<StockLedgerEntryDTO> listLedgerEntries(@PathVariable Long id, @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return stockLedger.entries(id, after, limit);
+    }
+
+    @GetMapping("/{id}/stock")
+    public StockAsOfDTO stockAsOf(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) throws BeerNotFoundException {
+        return stockLedger.stockAsOf(id, asOf == null ? Instant.now() : asOf);
+    }
+
+    @GetMapping("/{id}/warehouses")
+    public List<BeerWarehouseStockDTO> listWarehouseStock(@PathVariable Long id) throws BeerNotFoundException {
+        return beerWarehouseService.listStock(id);
+    }
+
+    @PatchMapping("/{id}/warehouses/{warehouse:" + BeerWarehouseTransferDTO.WAREHOUSE_PATTERN + "}/increment")
+    public BeerWarehouseStockDTO incrementWarehouse(@PathVariable Long id, @PathVariable String warehouse,
+            @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException,
+            BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+        return beerWarehouseService.increment(id, warehouse, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{id}/warehouses/{warehouse:" + BeerWarehouseTransferDTO.WAREHOUSE_PATTERN + "}/decrement")
+    public BeerWarehouseStockDTO decrementWarehouse(@PathVariable Long id, @PathVariable String warehouse,
+            @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException,
+            BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+        return beerWarehouseService.decrement(id, warehouse, quantityDTO.getQuantity());
+    }
+
+    @PostMapping("/{id}/warehouses/transfers")
+    public List<BeerWarehouseStockDTO> transferBetweenWarehouses(@PathVariable Long id,
+            @RequestBody @Valid BeerWarehouseTransferDTO transferDTO)
+            throws BeerNotFoundException, BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+        return beerWarehouseService.transfer(id, transferDTO.getFrom(), transferDTO.getTo(), transferDTO.getQuantity());
+    }
+
+    @PostMapping("/stock-movements")
+    public List<StockMovementResultDTO> applyStockMovements(@RequestBody @Valid StockMovementBatchDTO stockMovementBatchDTO) {
+        return beerService.applyMovements(stockMovementBatchDTO.getMovements());
+    }
+
+    private static ResponseEntity<BeerDTO> withValidators(BeerDTO beerDTO) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(BeerETags.of(beerDTO));
+        if (beerDTO.getUpdatedAt() != null) {
+            response.lastModified(beerDTO.getUpdatedAt());
+        }
+        return response.body(beerDTO);
     }
-}
\ No newline at end of file
+}
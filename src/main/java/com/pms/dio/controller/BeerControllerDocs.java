@@ -1,12 +1,42 @@
 package com.pms.dio.controller;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.pms.dio.dto.BeerChangeDTO;
 import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerImportDTO;
+import com.pms.dio.dto.BeerImportResultDTO;
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.dto.BeerReservationRequestDTO;
+import com.pms.dio.dto.BeerSearchCriteriaDTO;
+import com.pms.dio.dto.BeerSearchResultDTO;
+import com.pms.dio.dto.BeerStockSummaryDTO;
+import com.pms.dio.dto.BeerWarehouseStockDTO;
+import com.pms.dio.dto.BeerWarehouseTransferDTO;
+import com.pms.dio.dto.QuantityDTO;
+import com.pms.dio.dto.StockAsOfDTO;
+import com.pms.dio.dto.StockLedgerEntryDTO;
+import com.pms.dio.dto.StockMovementBatchDTO;
+import com.pms.dio.dto.StockMovementResultDTO;
+import com.pms.dio.enums.BeerExportFormat;
+import com.pms.dio.enums.BeerSort;
 import com.pms.dio.exception.BeerAlreadyRegisteredException;
+import com.pms.dio.exception.BeerChangesExpiredException;
 import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerReservationConflictException;
+import com.pms.dio.exception.BeerReservationNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerWarehouseConflictException;
+import com.pms.dio.exception.BeerWarehouseStockExceededException;
+import com.pms.dio.exception.InvalidCursorException;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -23,18 +53,76 @@ public interface BeerControllerDocs {
     })
     BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
 
-    @ApiOperation(value = "Returns beer found by a given name")
+    @ApiOperation(value = "Bulk beer creation operation, also accepts an application/x-ndjson stream of beers")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success beers creation"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or already registered names.")
+    })
+    BeerImportResultDTO importBeers(BeerImportDTO beerImportDTO) throws BeerAlreadyRegisteredException;
+
+    @ApiOperation(value = "Returns beer found by a given name, with ETag and Last-Modified validators. "
+            + "/by-name/{name} also reaches beers named like a fixed path such as export, search or changes")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success beer found in the system"),
+            @ApiResponse(code = 304, message = "Beer not modified since If-None-Match / If-Modified-Since."),
             @ApiResponse(code = 404, message = "Beer with given name not found.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    ResponseEntity<BeerDTO> findByName(@PathVariable String name) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns a page of beers registered in the system, 100 by default and at most 1000 (size). "
+            + "When more beers follow, the cursor of the next page is sent in the X-Next-Cursor header; "
+            + "clients that used to get the whole catalog from this endpoint must follow it, or use /export")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of beers registered in the system"),
+            @ApiResponse(code = 304, message = "Page not modified since If-None-Match."),
+            @ApiResponse(code = 400, message = "Cursor not valid for the requested sort.")
+    })
+    ResponseEntity<List<BeerDTO>> listBeers(String cursor, int size, BeerSort sort) throws InvalidCursorException;
+
+    @ApiOperation(value = "Searches beers by name or brand with type and stock filters, returning type and brand facet counts")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Matching beers in catalog order and facets over all matches"),
+            @ApiResponse(code = 400, message = "Wrong filter range value.")
+    })
+    BeerSearchResultDTO searchBeers(BeerSearchCriteriaDTO criteria);
+
+    @ApiOperation(value = "Returns beers, units in stock, capacity and fill ratio per beer type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock summary per beer type"),
+    })
+    List<BeerStockSummaryDTO> stockByType();
+
+    @ApiOperation(value = "Returns beers, units in stock, capacity and fill ratio per brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock summary per brand"),
+    })
+    List<BeerStockSummaryDTO> stockByBrand();
+
+    @ApiOperation(value = "Returns beers whose quantity/max is at most the given fill ratio, emptiest first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Low stock beers"),
+    })
+    List<BeerDTO> lowStock(double maxFillRatio, int size);
+
+    @ApiOperation(value = "Returns catalog and stock changes after the given sequence, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Up to limit changes after the given sequence"),
+            @ApiResponse(code = 410, message = "Changes after the given sequence are no longer retained, the catalog must be re-read.")
+    })
+    List<BeerChangeDTO> listChanges(long since, int limit) throws BeerChangesExpiredException;
+
+    @ApiOperation(value = "Server-Sent Events stream of changes after the given sequence (or Last-Event-ID), live changes when omitted")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream of beer-change events"),
+            @ApiResponse(code = 410, message = "Changes after the given sequence are no longer retained, the catalog must be re-read.")
+    })
+    SseEmitter streamChanges(Long since, Long lastEventId) throws BeerChangesExpiredException;
 
-    @ApiOperation(value = "Returns a list of all beers registered in the system")
+    @ApiOperation(value = "Streams every beer registered in the system as NDJSON or CSV")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 200, message = "Catalog streamed ordered by id"),
     })
-    List<BeerDTO> listBeers();
+    void exportBeers(BeerExportFormat format, HttpServletResponse response) throws IOException;
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
@@ -43,4 +131,87 @@ public interface BeerControllerDocs {
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
 
+    @ApiOperation(value = "Holds units of a beer until the reservation is confirmed, released or expires")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Reservation created, with its expiry"),
+            @ApiResponse(code = 400, message = "Not enough unreserved units or wrong quantity range."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock is write-behind buffered and cannot be reserved.")
+    })
+    BeerReservationDTO reserve(Long id, BeerReservationRequestDTO reservationRequestDTO)
+            throws BeerNotFoundException, BeerStockExceededException, BeerReservationConflictException;
+
+    @ApiOperation(value = "Turns a reservation into a decrement of the reserved units")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beer after the decrement"),
+            @ApiResponse(code = 404, message = "Reservation not found, already settled or expired."),
+            @ApiResponse(code = 409, message = "Beer stock is write-behind buffered.")
+    })
+    ResponseEntity<BeerDTO> confirmReservation(Long reservationId)
+            throws BeerReservationNotFoundException, BeerReservationConflictException, BeerNotFoundException;
+
+    @ApiOperation(value = "Releases the units held by a reservation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Reservation released"),
+            @ApiResponse(code = 404, message = "Reservation not found, already settled or expired.")
+    })
+    void releaseReservation(Long reservationId) throws BeerReservationNotFoundException;
+
+    @ApiOperation(value = "Lists the stock ledger of a beer after the given entry id: who changed it, when, by how much")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Ledger entries ordered by id"),
+    })
+    List<StockLedgerEntryDTO> listLedgerEntries(Long id, long after, int limit);
+
+    @ApiOperation(value = "Stock of a beer at a point in time (now when omitted), from its latest snapshot plus the ledger entries after it")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Quantity at the requested time"),
+            @ApiResponse(code = 404, message = "The ledger has no stock for the beer at that time.")
+    })
+    StockAsOfDTO stockAsOf(Long id, Instant asOf) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Lists the units of a beer held at each warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock per warehouse, ordered by warehouse"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    List<BeerWarehouseStockDTO> listWarehouseStock(Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Adds units of a beer at a warehouse, raising the beer total")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Warehouse stock after the increment"),
+            @ApiResponse(code = 400, message = "Beer total would exceed its max."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock is write-behind buffered.")
+    })
+    BeerWarehouseStockDTO incrementWarehouse(Long id, String warehouse, QuantityDTO quantityDTO) throws BeerNotFoundException,
+            BeerStockExceededException, BeerWarehouseStockExceededException, BeerWarehouseConflictException;
+
+    @ApiOperation(value = "Removes units of a beer at a warehouse, lowering the beer total")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Warehouse stock after the decrement"),
+            @ApiResponse(code = 400, message = "Warehouse does not hold enough units."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock is write-behind buffered.")
+    })
+    BeerWarehouseStockDTO decrementWarehouse(Long id, String warehouse, QuantityDTO quantityDTO) throws BeerNotFoundException,
+            BeerStockExceededException, BeerWarehouseStockExceededException, BeerWarehouseConflictException;
+
+    @ApiOperation(value = "Atomically moves units of a beer between two warehouses, leaving the total unchanged")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Source and target warehouse stock after the transfer"),
+            @ApiResponse(code = 400, message = "Source warehouse does not hold enough units, or invalid warehouses."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock is write-behind buffered.")
+    })
+    List<BeerWarehouseStockDTO> transferBetweenWarehouses(Long id, BeerWarehouseTransferDTO transferDTO)
+            throws BeerNotFoundException, BeerWarehouseStockExceededException, BeerWarehouseConflictException;
+
+    @ApiOperation(value = "Applies a batch of stock movements in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Per movement result, in request order"),
+            @ApiResponse(code = 400, message = "Missing required fields or empty batch.")
+    })
+    List<StockMovementResultDTO> applyStockMovements(StockMovementBatchDTO stockMovementBatchDTO);
+
 }
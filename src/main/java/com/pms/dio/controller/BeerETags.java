@@ -0,0 +1,101 @@
+package com.pms.dio.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.exception.BeerVersionMismatchException;
+
+/**
+ * Validators for beer responses. A single beer gets a strong ETag of its id and version, which
+ * If-Match turns back into the expected version; Tomcat never compresses responses with a strong ETag,
+ * so it always names the identity encoding. Pages get a weak ETag, as their bytes differ between
+ * gzip and identity. Both end in the format negotiated from {@code Accept}, so a JSON validator never
+ * answers 304 to a CBOR request or the other way round.
+ */
+final class BeerETags {
+
+	private static final String ANY = "*";
+
+	private static final String CBOR_SUFFIX = "-cbor";
+
+	private BeerETags() {
+	}
+
+	static String of(BeerDTO beerDTO) {
+		return "\"" + beerDTO.getId() + "-" + beerDTO.getVersion() + formatSuffix() + "\"";
+	}
+
+	static String of(List<BeerDTO> beerDTOs, String nextCursor) {
+		StringBuilder validators = new StringBuilder(beerDTOs.size() * 16);
+		for (BeerDTO beerDTO : beerDTOs) {
+			validators.append(beerDTO.getId()).append('-').append(beerDTO.getVersion()).append(';');
+		}
+		validators.append(nextCursor);
+		return "W/\"" + DigestUtils.md5DigestAsHex(validators.toString().getBytes(StandardCharsets.UTF_8)) + formatSuffix() + "\"";
+	}
+
+	/**
+	 * Version a client expects beer {@code id} to be at according to its If-Match header, or
+	 * {@code null} when the header is absent or {@code *}. The ETag of either format matches; weak or
+	 * foreign ETags never do.
+	 */
+	static Long expectedVersion(Long id, String ifMatch) throws BeerVersionMismatchException {
+		if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+			return null;
+		}
+		String etag = ifMatch.trim();
+		String prefix = "\"" + id + "-";
+		if (!etag.startsWith(prefix) || !etag.endsWith("\"") || etag.length() <= prefix.length() + 1) {
+			throw new BeerVersionMismatchException(id, etag);
+		}
+		String version = etag.substring(prefix.length(), etag.length() - 1);
+		if (version.endsWith(CBOR_SUFFIX)) {
+			version = version.substring(0, version.length() - CBOR_SUFFIX.length());
+		}
+		try {
+			return Long.valueOf(version);
+		} catch (NumberFormatException e) {
+			throw new BeerVersionMismatchException(id, etag);
+		}
+	}
+
+	/**
+	 * Picks the format the way content negotiation does: the most specific, most preferred accepted
+	 * type that is JSON or CBOR, where wildcards mean JSON.
+	 */
+	private static String formatSuffix() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return "";
+		}
+		String accept = ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.ACCEPT);
+		if (accept == null) {
+			return "";
+		}
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return "";
+		}
+		MediaType.sortBySpecificityAndQuality(accepted);
+		for (MediaType mediaType : accepted) {
+			if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				return "";
+			}
+			if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+				return CBOR_SUFFIX;
+			}
+		}
+		return "";
+	}
+}
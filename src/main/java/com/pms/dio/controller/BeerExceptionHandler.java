@@ -0,0 +1,60 @@
+package com.pms.dio.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.pms.dio.dto.ErrorResponseDTO;
+import com.pms.dio.enums.BeerErrorCode;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerWarehouseStockExceededException;
+
+/**
+ * Turns the routine stock outcomes into a structured body that clients can act on without parsing
+ * messages. Other exceptions keep their {@code @ResponseStatus} mapping.
+ */
+@RestControllerAdvice(assignableTypes = BeerController.class)
+public class BeerExceptionHandler {
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponseDTO handleNotFound(BeerNotFoundException e) {
+        return ErrorResponseDTO.builder()
+                .code(BeerErrorCode.BEER_NOT_FOUND)
+                .error(BeerErrorCode.BEER_NOT_FOUND.getDescription())
+                .id(e.getId())
+                .name(e.getName())
+                .build();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseDTO handleStockExceeded(BeerStockExceededException e) {
+        BeerErrorCode code = e.getRequestedDelta() > 0 ? BeerErrorCode.STOCK_EXCEEDS_MAX : BeerErrorCode.STOCK_BELOW_ZERO;
+        return ErrorResponseDTO.builder()
+                .code(code)
+                .error(code.getDescription())
+                .id(e.getId())
+                .requestedDelta(e.getRequestedDelta())
+                .quantity(e.getQuantity())
+                .reserved(e.getReserved())
+                .allocated(e.getAllocated())
+                .max(e.getMax())
+                .build();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseDTO handleWarehouseStockExceeded(BeerWarehouseStockExceededException e) {
+        return ErrorResponseDTO.builder()
+                .code(BeerErrorCode.STOCK_BELOW_ZERO)
+                .error(BeerErrorCode.STOCK_BELOW_ZERO.getDescription())
+                .id(e.getId())
+                .warehouse(e.getWarehouse())
+                .requestedDelta(e.getRequestedDelta())
+                .quantity(e.getQuantity())
+                .build();
+    }
+}
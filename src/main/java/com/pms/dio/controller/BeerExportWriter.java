@@ -0,0 +1,99 @@
+package com.pms.dio.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.enums.BeerExportFormat;
+
+abstract class BeerExportWriter implements Consumer<BeerDTO>, AutoCloseable {
+
+	static BeerExportWriter of(BeerExportFormat format, ObjectMapper objectMapper, OutputStream out) throws IOException {
+		return format == BeerExportFormat.CSV ? new Csv(out) : new Ndjson(objectMapper, out);
+	}
+
+	@Override
+	public void accept(BeerDTO beerDTO) {
+		try {
+			write(beerDTO);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected abstract void write(BeerDTO beerDTO) throws IOException;
+
+	@Override
+	public abstract void close() throws IOException;
+
+	private static class Ndjson extends BeerExportWriter {
+
+		private final ObjectWriter writer;
+
+		private final JsonGenerator generator;
+
+		Ndjson(ObjectMapper objectMapper, OutputStream out) throws IOException {
+			this.writer = objectMapper.writerFor(BeerDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+			this.generator = objectMapper.getFactory().createGenerator(out);
+			this.generator.setRootValueSeparator(null);
+		}
+
+		@Override
+		protected void write(BeerDTO beerDTO) throws IOException {
+			writer.writeValue(generator, beerDTO);
+			generator.writeRaw('\n');
+		}
+
+		@Override
+		public void close() throws IOException {
+			generator.close();
+		}
+	}
+
+	private static class Csv extends BeerExportWriter {
+
+		private final Writer writer;
+
+		Csv(OutputStream out) throws IOException {
+			this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			this.writer.write("id,name,brand,max,quantity,type\n");
+		}
+
+		@Override
+		protected void write(BeerDTO beerDTO) throws IOException {
+			writer.write(String.valueOf(beerDTO.getId()));
+			writer.write(',');
+			writer.write(escape(beerDTO.getName()));
+			writer.write(',');
+			writer.write(escape(beerDTO.getBrand()));
+			writer.write(',');
+			writer.write(String.valueOf(beerDTO.getMax()));
+			writer.write(',');
+			writer.write(String.valueOf(beerDTO.getQuantity()));
+			writer.write(',');
+			writer.write(beerDTO.getType().name());
+			writer.write('\n');
+		}
+
+		private static String escape(String value) {
+			if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+				return value;
+			}
+			return '"' + value.replace("\"", "\"\"") + '"';
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.pms.dio.controller;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.pms.dio.config.RateLimitProperties;
+
+/**
+ * Names the client behind a request: the value of {@code beer.rate-limit.client-header} when the request
+ * carries it, its remote address otherwise. {@link RateLimitFilter} keeps a bucket per client and
+ * {@link IdempotencyFilter} scopes keys per client, so both must agree on who the client is.
+ * <p>
+ * Behind a proxy the remote address is the proxy's, and every client without the header would share
+ * one bucket. {@code server.forward-headers-strategy=native} makes Tomcat take the address from
+ * {@code X-Forwarded-For} instead, trusting it only when the proxy's own address is internal; a proxy
+ * outside those ranges must be listed in {@code server.tomcat.remoteip.internal-proxies}.
+ */
+@Component
+class ClientIdentity {
+
+	@Autowired
+	private RateLimitProperties properties;
+
+	String of(HttpServletRequest request) {
+		String client = properties.getClientHeader() == null ? null : request.getHeader(properties.getClientHeader());
+		return client == null || client.isEmpty() ? request.getRemoteAddr() : client;
+	}
+}
@@ -0,0 +1,251 @@
+package com.pms.dio.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pms.dio.config.IdempotencyProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Replays the first response to a stock mutation sent with an {@code Idempotency-Key} header, so a client
+ * retrying after a timeout does not apply the movement twice. Keys are scoped to the client
+ * {@link ClientIdentity} names, so two clients picking the same key never see each other's response,
+ * and live in a bounded Caffeine cache that expires them after {@code beer.idempotency.ttl}. Reusing a
+ * key for a different request answers 422, and a retry that arrives while the first request is still
+ * running answers 409 instead of waiting. Server errors are not remembered, so those can be retried
+ * with the same key.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+	static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	private static final int MAX_KEY_LENGTH = 255;
+
+	private static final List<String> MUTATION_PATTERNS = List.of(
+			"/api/v1/beers",
+			"/api/v1/beers/*/increment",
+			"/api/v1/beers/*/decrement",
+			"/api/v1/beers/*/reservations",
+			"/api/v1/beers/*/warehouses/*/increment",
+			"/api/v1/beers/*/warehouses/*/decrement",
+			"/api/v1/beers/*/warehouses/transfers");
+
+	private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	@Autowired
+	private IdempotencyProperties properties;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private ClientIdentity clientIdentity;
+
+	private Cache<List<String>, StoredResponse> responses;
+
+	@PostConstruct
+	public void init() {
+		responses = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumKeys())
+				.expireAfterWrite(properties.getTtl())
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, responses, "idempotencyKeys");
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+			return true;
+		}
+		if (!HttpMethod.POST.matches(request.getMethod()) && !HttpMethod.PATCH.matches(request.getMethod())) {
+			return true;
+		}
+		String path = urlPathHelper.getPathWithinApplication(request);
+		return MUTATION_PATTERNS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+		if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			response.sendError(HttpStatus.BAD_REQUEST.value(), String.format("%s must have 1 to %s characters.", IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+			return;
+		}
+		List<String> key = List.of(clientIdentity.of(request), idempotencyKey);
+		CachedBodyRequest cachedBodyRequest = new CachedBodyRequest(request);
+		StoredResponse inFlight = new StoredResponse(fingerprint(cachedBodyRequest));
+		StoredResponse previous = responses.get(key, k -> inFlight);
+		if (previous != inFlight) {
+			replay(previous, inFlight.fingerprint, response);
+			return;
+		}
+		ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+		try {
+			filterChain.doFilter(cachedBodyRequest, cachingResponse);
+		} catch (IOException | ServletException | RuntimeException e) {
+			responses.asMap().remove(key, inFlight);
+			throw e;
+		}
+		if (cachingResponse.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+			responses.asMap().remove(key, inFlight);
+		} else {
+			responses.asMap().replace(key, inFlight, inFlight.complete(cachingResponse));
+		}
+		cachingResponse.copyBodyToResponse();
+	}
+
+	private static void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+		if (!stored.fingerprint.equals(fingerprint)) {
+			response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), String.format("%s was already used for a different request.", IDEMPOTENCY_KEY_HEADER));
+			return;
+		}
+		if (stored.body == null) {
+			response.sendError(HttpStatus.CONFLICT.value(), String.format("A request with this %s is still being processed.", IDEMPOTENCY_KEY_HEADER));
+			return;
+		}
+		response.setStatus(stored.status);
+		stored.headers.forEach(response::setHeader);
+		if (stored.contentType != null) {
+			response.setContentType(stored.contentType);
+		}
+		response.setHeader(REPLAYED_HEADER, "true");
+		response.setContentLength(stored.body.length);
+		response.getOutputStream().write(stored.body);
+	}
+
+	private static String fingerprint(CachedBodyRequest request) {
+		StringBuilder requestLine = new StringBuilder()
+				.append(request.getMethod()).append(' ')
+				.append(request.getRequestURI()).append('?')
+				.append(request.getQueryString()).append('\n')
+				.append(request.getHeader(HttpHeaders.IF_MATCH)).append('\n');
+		byte[] line = requestLine.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] fingerprinted = new byte[line.length + request.body.length];
+		System.arraycopy(line, 0, fingerprinted, 0, line.length);
+		System.arraycopy(request.body, 0, fingerprinted, line.length, request.body.length);
+		return DigestUtils.md5DigestAsHex(fingerprinted);
+	}
+
+	/**
+	 * The response a key is bound to; {@code body} stays {@code null} while the first request is running.
+	 */
+	private static class StoredResponse {
+
+		private final String fingerprint;
+
+		private final int status;
+
+		private final String contentType;
+
+		private final Map<String, String> headers;
+
+		private final byte[] body;
+
+		StoredResponse(String fingerprint) {
+			this(fingerprint, 0, null, Map.of(), null);
+		}
+
+		private StoredResponse(String fingerprint, int status, String contentType, Map<String, String> headers, byte[] body) {
+			this.fingerprint = fingerprint;
+			this.status = status;
+			this.contentType = contentType;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		StoredResponse complete(ContentCachingResponseWrapper response) {
+			Map<String, String> headers = new LinkedHashMap<>();
+			for (String header : REPLAYED_HEADERS) {
+				if (response.getHeader(header) != null) {
+					headers.put(header, response.getHeader(header));
+				}
+			}
+			return new StoredResponse(fingerprint, response.getStatus(), response.getContentType(), headers, response.getContentAsByteArray());
+		}
+	}
+
+	private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request) throws IOException {
+			super(request);
+			this.body = StreamUtils.copyToByteArray(request.getInputStream());
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+
+				@Override
+				public int read() {
+					return in.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener readListener) {
+					try {
+						readListener.onDataAvailable();
+						readListener.onAllDataRead();
+					} catch (IOException e) {
+						readListener.onError(e);
+					}
+				}
+			};
+		}
+	}
+}
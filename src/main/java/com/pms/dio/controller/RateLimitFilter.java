@@ -0,0 +1,177 @@
+package com.pms.dio.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pms.dio.config.RateLimitProperties;
+import com.pms.dio.config.RateLimitProperties.Bucket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sheds stock mutations before they reach the database. Each increment, decrement, reservation or
+ * warehouse transfer of a beer takes a token from its client's bucket and from that beer's bucket; a
+ * stock-movement batch and a reservation confirm or release name no single beer, so they only take a
+ * client token. Then every one of them needs a slot in an
+ * {@link AdaptiveConcurrencyLimiter} capped below the JDBC pool, so reads such as {@code findByName}
+ * keep their connections during a mutation storm. Anything over a limit answers 429 with
+ * {@code Retry-After} at once. Reads, creation and bulk imports are not limited, so a long import
+ * neither spends client tokens nor drags the concurrency limit down. Clients are told apart by
+ * {@link ClientIdentity}. Runs ahead of {@link IdempotencyFilter}, so a shed request is not remembered
+ * under its key.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	static final String REJECTIONS_METRIC = "beer.rate.limit.rejections";
+
+	static final String CLIENT = "client";
+
+	static final String BEER = "beer";
+
+	static final String CONCURRENCY = "concurrency";
+
+	private static final List<String> STOCK_PATTERNS = List.of(
+			"/api/v1/beers/{id:\\d+}/increment",
+			"/api/v1/beers/{id:\\d+}/decrement",
+			"/api/v1/beers/{id:\\d+}/reservations",
+			"/api/v1/beers/{id:\\d+}/warehouses/*/increment",
+			"/api/v1/beers/{id:\\d+}/warehouses/*/decrement",
+			"/api/v1/beers/{id:\\d+}/warehouses/transfers",
+			"/api/v1/beers/reservations/*/confirm",
+			"/api/v1/beers/reservations/*",
+			"/api/v1/beers/stock-movements");
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	@Autowired
+	private RateLimitProperties properties;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private ClientIdentity clientIdentity;
+
+	private Cache<String, TokenBucket> clientBuckets;
+
+	private Cache<Long, TokenBucket> beerBuckets;
+
+	private AdaptiveConcurrencyLimiter limiter;
+
+	@PostConstruct
+	public void init() {
+		clientBuckets = newBuckets();
+		beerBuckets = newBuckets();
+		limiter = new AdaptiveConcurrencyLimiter(properties.getConcurrency());
+		for (String reason : new String[] { CLIENT, BEER, CONCURRENCY }) {
+			registry.counter(REJECTIONS_METRIC, "reason", reason);
+		}
+		Gauge.builder("beer.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+				.description("Stock mutations allowed in flight")
+				.register(registry);
+		Gauge.builder("beer.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+				.description("Stock mutations in flight")
+				.register(registry);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (!properties.isEnabled()) {
+			return true;
+		}
+		if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+				|| HttpMethod.OPTIONS.matches(request.getMethod())) {
+			return true;
+		}
+		return stockPatternOf(urlPathHelper.getPathWithinApplication(request)) == null;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long now = System.nanoTime();
+		long wait = take(clientBuckets, clientIdentity.of(request), properties.getClient(), now);
+		if (wait > 0) {
+			reject(response, CLIENT, wait);
+			return;
+		}
+		Long beerId = beerOf(request);
+		wait = beerId == null ? 0 : take(beerBuckets, beerId, properties.getBeer(), now);
+		if (wait > 0) {
+			reject(response, BEER, wait);
+			return;
+		}
+		if (!limiter.tryAcquire()) {
+			reject(response, CONCURRENCY, properties.getConcurrency().getRetryAfter().toNanos());
+			return;
+		}
+		boolean failed = true;
+		try {
+			filterChain.doFilter(request, response);
+			failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+		} finally {
+			limiter.release(System.nanoTime() - now, failed);
+		}
+	}
+
+	private <K> Cache<K, TokenBucket> newBuckets() {
+		return Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumBuckets())
+				.expireAfterAccess(properties.getIdleTimeout())
+				.build();
+	}
+
+	private static <K> long take(Cache<K, TokenBucket> buckets, K key, Bucket bucket, long now) {
+		return buckets.get(key, k -> new TokenBucket(bucket.getCapacity(), bucket.getRefillPerSecond(), now)).tryAcquire(now);
+	}
+
+	private String stockPatternOf(String path) {
+		return STOCK_PATTERNS.stream().filter(pattern -> pathMatcher.match(pattern, path)).findFirst().orElse(null);
+	}
+
+	private Long beerOf(HttpServletRequest request) {
+		String path = urlPathHelper.getPathWithinApplication(request);
+		String id = pathMatcher.extractUriTemplateVariables(stockPatternOf(path), path).get("id");
+		if (id == null) {
+			return null;
+		}
+		try {
+			return Long.valueOf(id);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private void reject(HttpServletResponse response, String reason, long waitNanos) throws IOException {
+		registry.counter(REJECTIONS_METRIC, "reason", reason).increment();
+		long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+		response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), String.format("Too many stock mutations (%s limit), retry after %s s.",
+				reason, retryAfterSeconds));
+	}
+}
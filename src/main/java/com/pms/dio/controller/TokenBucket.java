@@ -0,0 +1,37 @@
+package com.pms.dio.controller;
+
+/**
+ * Holds up to {@code capacity} tokens and refills continuously, so a client can burst up to the
+ * capacity and is then held to the refill rate.
+ */
+class TokenBucket {
+
+	private final double capacity;
+
+	private final double refillPerNano;
+
+	private double tokens;
+
+	private long refilledAt;
+
+	TokenBucket(int capacity, double refillPerSecond, long now) {
+		this.capacity = capacity;
+		this.refillPerNano = refillPerSecond / 1e9;
+		this.tokens = capacity;
+		this.refilledAt = now;
+	}
+
+	/**
+	 * Takes a token and returns 0, or leaves the bucket untouched and returns the nanoseconds until the
+	 * next token is available.
+	 */
+	synchronized long tryAcquire(long now) {
+		tokens = Math.min(capacity, tokens + Math.max(0, now - refilledAt) * refillPerNano);
+		refilledAt = now;
+		if (tokens >= 1) {
+			tokens--;
+			return 0;
+		}
+		return (long) Math.ceil((1 - tokens) / refillPerNano);
+	}
+}
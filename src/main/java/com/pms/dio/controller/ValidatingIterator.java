@@ -0,0 +1,56 @@
+package com.pms.dio.controller;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class ValidatingIterator<T> implements Iterator<T> {
+
+	private final Iterator<T> delegate;
+
+	private final Validator validator;
+
+	private long record;
+
+	ValidatingIterator(Iterator<T> delegate, Validator validator) {
+		this.delegate = delegate;
+		this.validator = validator;
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			return delegate.hasNext();
+		} catch (RuntimeException e) {
+			throw invalidRecord(record + 1, e.getMessage());
+		}
+	}
+
+	@Override
+	public T next() {
+		T element;
+		record++;
+		try {
+			element = delegate.next();
+		} catch (RuntimeException e) {
+			throw invalidRecord(record, e.getMessage());
+		}
+		Set<ConstraintViolation<T>> violations = validator.validate(element);
+		if (!violations.isEmpty()) {
+			throw invalidRecord(record, violations.stream()
+					.map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+					.collect(Collectors.joining(", ")));
+		}
+		return element;
+	}
+
+	private ResponseStatusException invalidRecord(long invalidRecord, String reason) {
+		return new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Invalid record %s: %s", invalidRecord, reason));
+	}
+}
@@ -0,0 +1,27 @@
+package com.pms.dio.dto;
+
+import java.time.Instant;
+
+import com.pms.dio.enums.BeerChangeType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerChangeDTO {
+
+	private long sequence;
+
+	private BeerChangeType type;
+
+	private Instant timestamp;
+
+	private int delta;
+
+	private BeerDTO beer;
+}
@@ -1,5 +1,7 @@
 package com.pms.dio.dto;
 
+import java.time.Instant;
+
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.Max;
@@ -40,4 +42,8 @@ public class BeerDTO {
 	@Enumerated(EnumType.STRING)
 	@NotNull
 	private BeerType type;
+
+	private Long version;
+
+	private Instant updatedAt;
 }
@@ -0,0 +1,19 @@
+package com.pms.dio.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerPageDTO {
+
+	private List<BeerDTO> content;
+
+	private String nextCursor;
+}
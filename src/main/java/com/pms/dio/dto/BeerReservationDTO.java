@@ -0,0 +1,23 @@
+package com.pms.dio.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerReservationDTO {
+
+	private Long id;
+
+	private Long beerId;
+
+	private int quantity;
+
+	private Instant expiresAt;
+}
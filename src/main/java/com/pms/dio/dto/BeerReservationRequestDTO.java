@@ -0,0 +1,26 @@
+package com.pms.dio.dto;
+
+import java.time.Duration;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerReservationRequestDTO {
+
+	@NotNull
+	@Min(1)
+	@Max(100)
+	private Integer quantity;
+
+	private Duration ttl;
+}
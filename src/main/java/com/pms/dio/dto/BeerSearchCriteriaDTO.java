@@ -0,0 +1,38 @@
+package com.pms.dio.dto;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+
+import com.pms.dio.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerSearchCriteriaDTO {
+
+	@Size(max = 200)
+	private String q;
+
+	private BeerType type;
+
+	@Min(0)
+	private Integer minQuantity;
+
+	@Min(0)
+	private Integer maxQuantity;
+
+	@DecimalMin("0.0")
+	@DecimalMax("1.0")
+	private Double maxFillRatio;
+
+	@Min(1)
+	@Max(1000)
+	private int size = 20;
+}
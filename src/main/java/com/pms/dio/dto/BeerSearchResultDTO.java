@@ -0,0 +1,26 @@
+package com.pms.dio.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.pms.dio.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerSearchResultDTO {
+
+	private long total;
+
+	private List<BeerDTO> beers;
+
+	private Map<BeerType, Long> types;
+
+	private Map<String, Long> brands;
+}
@@ -0,0 +1,23 @@
+package com.pms.dio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockSummaryDTO {
+
+	private String group;
+
+	private long beers;
+
+	private long quantity;
+
+	private long capacity;
+
+	private double fillRatio;
+}
@@ -0,0 +1,19 @@
+package com.pms.dio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerWarehouseStockDTO {
+
+	private Long beerId;
+
+	private String warehouse;
+
+	private int quantity;
+}
@@ -0,0 +1,42 @@
+package com.pms.dio.dto;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerWarehouseTransferDTO {
+
+	public static final String WAREHOUSE_PATTERN = "[A-Za-z0-9_-]{1,64}";
+
+	@NotNull
+	@Pattern(regexp = WAREHOUSE_PATTERN)
+	private String from;
+
+	@NotNull
+	@Pattern(regexp = WAREHOUSE_PATTERN)
+	private String to;
+
+	@NotNull
+	@Min(1)
+	@Max(100)
+	private Integer quantity;
+
+	@JsonIgnore
+	@AssertTrue(message = "from and to must be different warehouses")
+	public boolean isDistinctWarehouses() {
+		return from == null || !from.equals(to);
+	}
+}
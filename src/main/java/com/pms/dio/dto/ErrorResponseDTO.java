@@ -0,0 +1,37 @@
+package com.pms.dio.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pms.dio.enums.BeerErrorCode;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ErrorResponseDTO {
+
+	private BeerErrorCode code;
+
+	private String error;
+
+	private Long id;
+
+	private String name;
+
+	private Integer requestedDelta;
+
+	private Integer quantity;
+
+	private Integer reserved;
+
+	private Integer allocated;
+
+	private String warehouse;
+
+	private Integer max;
+}
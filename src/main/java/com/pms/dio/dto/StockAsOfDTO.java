@@ -0,0 +1,25 @@
+package com.pms.dio.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAsOfDTO {
+
+	private Long beerId;
+
+	private Instant asOf;
+
+	private int quantity;
+
+	private Instant snapshotTakenAt;
+
+	private long replayedEntries;
+}
@@ -0,0 +1,27 @@
+package com.pms.dio.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerEntryDTO {
+
+	private Long id;
+
+	private Long beerId;
+
+	private int delta;
+
+	private int quantity;
+
+	private String actor;
+
+	private Instant occurredAt;
+}
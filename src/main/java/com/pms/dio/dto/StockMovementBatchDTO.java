@@ -0,0 +1,23 @@
+package com.pms.dio.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementBatchDTO {
+
+	@NotEmpty
+	@Size(max = 50000)
+	private List<@Valid StockMovementDTO> movements;
+}
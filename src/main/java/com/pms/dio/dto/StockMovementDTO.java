@@ -0,0 +1,21 @@
+package com.pms.dio.dto;
+
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementDTO {
+
+	@NotNull
+	private Long id;
+
+	@NotNull
+	private Integer delta;
+}
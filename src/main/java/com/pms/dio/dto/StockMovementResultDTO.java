@@ -0,0 +1,23 @@
+package com.pms.dio.dto;
+
+import com.pms.dio.enums.StockMovementStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementResultDTO {
+
+	private Long id;
+
+	private int delta;
+
+	private StockMovementStatus status;
+
+	private Integer quantity;
+}
@@ -0,0 +1,15 @@
+package com.pms.dio.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerChangeType {
+
+	CREATED("Beer registered"),
+	DELETED("Beer removed"),
+	STOCK_CHANGED("Stock adjusted");
+
+	private final String description;
+}
@@ -0,0 +1,15 @@
+package com.pms.dio.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerErrorCode {
+
+	BEER_NOT_FOUND("Beer not found"),
+	STOCK_EXCEEDS_MAX("Stock would exceed the max capacity"),
+	STOCK_BELOW_ZERO("Stock would drop below zero or below the reserved or warehouse-allocated units");
+
+	private final String description;
+}
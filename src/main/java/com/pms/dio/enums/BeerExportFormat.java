@@ -0,0 +1,14 @@
+package com.pms.dio.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerExportFormat {
+
+	NDJSON("application/x-ndjson"),
+	CSV("text/csv");
+
+	private final String contentType;
+}
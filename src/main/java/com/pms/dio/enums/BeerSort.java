@@ -0,0 +1,15 @@
+package com.pms.dio.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerSort {
+
+	ID("id"),
+	NAME("name"),
+	BRAND("brand");
+
+	private final String description;
+}
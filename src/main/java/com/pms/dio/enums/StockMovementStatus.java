@@ -0,0 +1,17 @@
+package com.pms.dio.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockMovementStatus {
+
+	APPLIED("Applied"),
+	NOT_FOUND("Beer not found"),
+	EXCEEDS_MAX("Would exceed max stock"),
+	BELOW_ZERO("Would go below zero or below the reserved or warehouse-allocated units"),
+	BUFFERED("Beer stock is write-behind buffered, adjust it on its own");
+
+	private final String description;
+}
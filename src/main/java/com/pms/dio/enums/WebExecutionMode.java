@@ -0,0 +1,14 @@
+package com.pms.dio.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum WebExecutionMode {
+
+	PLATFORM("Tomcat worker pool of platform threads"),
+	VIRTUAL("One virtual thread per request (Java 21+)");
+
+	private final String description;
+}
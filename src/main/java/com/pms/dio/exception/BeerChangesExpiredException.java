@@ -0,0 +1,12 @@
+package com.pms.dio.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class BeerChangesExpiredException extends Exception {
+
+	public BeerChangesExpiredException(long since, long oldestSequence) {
+		super(String.format("Changes after sequence %s are no longer retained, oldest available is %s.", since, oldestSequence));
+	}
+}
@@ -3,14 +3,36 @@ package com.pms.dio.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import lombok.Getter;
+
+/**
+ * Thrown for every lookup of an unknown beer, which is a routine outcome rather than a bug: it carries no
+ * stack trace and only formats its message when someone asks for it.
+ */
+@Getter
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class BeerNotFoundException extends Exception {
 
+    private final Long id;
+
+    private final String name;
+
     public BeerNotFoundException(String beerName) {
-        super(String.format("Beer with name %s not found in system.", beerName));
+        super(null, null, false, false);
+        this.id = null;
+        this.name = beerName;
     }
 
     public BeerNotFoundException(Long id) {
-        super(String.format("Beer with id %s not found in system.", id));
+        super(null, null, false, false);
+        this.id = id;
+        this.name = null;
+    }
+
+    @Override
+    public String getMessage() {
+        return name != null
+                ? String.format("Beer with name %s not found in system.", name)
+                : String.format("Beer with id %s not found in system.", id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.pms.dio.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerReservationConflictException extends Exception {
+
+	public BeerReservationConflictException(Long beerId) {
+		super(String.format("Beer with id %s keeps its stock in the write-behind buffer and cannot be reserved.", beerId));
+	}
+}
@@ -0,0 +1,12 @@
+package com.pms.dio.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BeerReservationNotFoundException extends Exception {
+
+	public BeerReservationNotFoundException(Long reservationId) {
+		super(String.format("Reservation with id %s not found, already settled or expired.", reservationId));
+	}
+}
@@ -3,10 +3,42 @@ package com.pms.dio.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import lombok.Getter;
+
+/**
+ * Thrown when an adjustment would leave the stock outside {@code [reserved + allocated, max]}. Like
+ * {@link BeerNotFoundException} it is a routine outcome, so it skips the stack trace and formats its
+ * message lazily.
+ */
+@Getter
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BeerStockExceededException extends Exception {
 
-    public BeerStockExceededException(Long id, int quantityToIncrement) {
-        super(String.format("Beers with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement));
+    private final Long id;
+
+    private final int requestedDelta;
+
+    private final int quantity;
+
+    private final int reserved;
+
+    private final int allocated;
+
+    private final int max;
+
+    public BeerStockExceededException(Long id, int requestedDelta, int quantity, int reserved, int allocated, int max) {
+        super(null, null, false, false);
+        this.id = id;
+        this.requestedDelta = requestedDelta;
+        this.quantity = quantity;
+        this.reserved = reserved;
+        this.allocated = allocated;
+        this.max = max;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format("Adjusting the stock of beer with id %s by %s would leave it outside [%s, %s], current quantity is %s.",
+                id, requestedDelta, reserved + allocated, max, quantity);
     }
-}
\ No newline at end of file
+}
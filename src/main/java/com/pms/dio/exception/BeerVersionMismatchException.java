@@ -0,0 +1,16 @@
+package com.pms.dio.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class BeerVersionMismatchException extends Exception {
+
+	public BeerVersionMismatchException(Long id, long expectedVersion) {
+		super(String.format("Beer with id %s is no longer at version %s.", id, expectedVersion));
+	}
+
+	public BeerVersionMismatchException(Long id, String etag) {
+		super(String.format("Beer with id %s does not match %s.", id, etag));
+	}
+}
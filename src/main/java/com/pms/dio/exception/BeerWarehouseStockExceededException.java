@@ -0,0 +1,37 @@
+package com.pms.dio.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a warehouse does not hold enough units for a decrement or transfer. Cheap for the same
+ * reasons as {@link BeerStockExceededException}.
+ */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerWarehouseStockExceededException extends Exception {
+
+    private final Long id;
+
+    private final String warehouse;
+
+    private final int requestedDelta;
+
+    private final int quantity;
+
+    public BeerWarehouseStockExceededException(Long id, String warehouse, int requestedDelta, int quantity) {
+        super(null, null, false, false);
+        this.id = id;
+        this.warehouse = warehouse;
+        this.requestedDelta = requestedDelta;
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format("Adjusting the stock of beer with id %s at warehouse %s by %s would drop it below zero, current quantity is %s.",
+                id, warehouse, requestedDelta, quantity);
+    }
+}
@@ -1,17 +1,26 @@
 package com.pms.dio.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import com.pms.dio.dto.BeerDTO;
 import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.repository.BeerStockState;
 
 @Mapper
 public interface BeerMapper {
 
 	BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "reserved", ignore = true)
+    @Mapping(target = "allocated", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
     BeerDTO toDTO(Beer beer);;
+
+    BeerDTO toDTO(BeerMetadata metadata, BeerStockState state);
 }
@@ -1,5 +1,8 @@
 package com.pms.dio.model;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -7,6 +10,12 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 import com.pms.dio.enums.BeerType;
 
@@ -16,12 +25,14 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
+@Table(indexes = @Index(name = "idx_beer_brand_id", columnList = "brand, id"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Beer {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_sequence")
+	@SequenceGenerator(name = "beer_sequence", sequenceName = "beer_sequence", allocationSize = 50)
 	private Long id;
 	
 	@Column(nullable = false, unique = true)
@@ -36,8 +47,35 @@ public class Beer {
     @Column(nullable = false)
     private int quantity;
 
+    /**
+     * Units held by open reservations. Only the conditional updates in {@code BeerRepository} change it,
+     * so a stale entity never writes it back.
+     */
+    @Column(nullable = false, updatable = false)
+    private int reserved;
+
+    /**
+     * Units assigned to warehouses, i.e. the sum of this beer's {@link BeerWarehouseStock} rows. The rest
+     * of {@link #quantity} is unassigned stock, the only part plain increments, decrements and
+     * reservations touch. Like {@link #reserved} it is only changed by conditional updates.
+     */
+    @Column(nullable = false, updatable = false)
+    private int allocated;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BeerType type;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
 }
@@ -0,0 +1,50 @@
+package com.pms.dio.model;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+
+import com.pms.dio.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The part of a {@link Beer} that never changes after creation, read-only over the same row. It is the
+ * only entity in the second-level cache, so mutations can check existence and build their response
+ * without reading the row; only the volatile stock columns, see
+ * {@link com.pms.dio.repository.BeerStockState}, come from the database. Being mapped to a subselect
+ * rather than the {@code beer} table, it is not evicted by the bulk updates that change stock.
+ */
+@Data
+@Entity
+@Immutable
+@Subselect("select b.id, b.name, b.brand, b.max, b.type from beer b")
+@NoArgsConstructor
+@AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = BeerMetadata.CACHE_REGION)
+public class BeerMetadata {
+
+	public static final String CACHE_REGION = "beer-metadata";
+
+	@Id
+	private Long id;
+
+	private String name;
+
+	private String brand;
+
+	private int max;
+
+	@Enumerated(EnumType.STRING)
+	private BeerType type;
+}
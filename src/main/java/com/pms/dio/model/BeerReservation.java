@@ -0,0 +1,39 @@
+package com.pms.dio.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units of a beer held until {@link #expiresAt}. The beer id is a plain column: holds of a deleted beer
+ * are simply left to expire.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerReservation {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_reservation_sequence")
+	@SequenceGenerator(name = "beer_reservation_sequence", sequenceName = "beer_reservation_sequence", allocationSize = 50)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long beerId;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	@Column(nullable = false)
+	private Instant expiresAt;
+}
@@ -0,0 +1,50 @@
+package com.pms.dio.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units of a beer held at one warehouse. Rows are created by the first increment at a location and are
+ * only changed through the conditional updates in {@code BeerWarehouseStockRepository}; their sum per beer
+ * is kept in {@code Beer.allocated}.
+ */
+@Data
+@Entity
+@IdClass(BeerWarehouseStock.Key.class)
+@Table(indexes = @Index(name = "idx_beer_warehouse_stock_warehouse", columnList = "warehouse, beerId"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerWarehouseStock {
+
+	@Id
+	private Long beerId;
+
+	@Id
+	@Column(length = 64)
+	private String warehouse;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Long beerId;
+
+		private String warehouse;
+	}
+}
@@ -0,0 +1,49 @@
+package com.pms.dio.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One committed change of a beer's total stock: who made it, when, the delta and the quantity right
+ * after it. Rows are only ever inserted, by concurrent transactions, so ids follow insert order but not
+ * commit order; snapshots and replays go by {@link #occurredAt} instead.
+ */
+@Data
+@Entity
+@Table(indexes = {
+		@Index(name = "idx_stock_ledger_entry_beer_id", columnList = "beerId, id"),
+		@Index(name = "idx_stock_ledger_entry_beer_id_occurred_at", columnList = "beerId, occurredAt") })
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerEntry {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long beerId;
+
+	@Column(nullable = false)
+	private int delta;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	@Column(nullable = false, length = 64)
+	private String actor;
+
+	@Column(nullable = false)
+	private Instant occurredAt;
+}
@@ -0,0 +1,44 @@
+package com.pms.dio.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A beer's quantity once every ledger entry that occurred up to {@link #takenAt} is applied, valid from
+ * then on. Stock at a later time is this quantity plus the deltas of the entries that occurred after it.
+ * {@link #lastEntryId} is the highest id folded in; ids do not follow commit order, so it is not a bound.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_stock_snapshot_beer_id", columnList = "beerId, takenAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshot {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long beerId;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	@Column(nullable = false)
+	private long lastEntryId;
+
+	@Column(nullable = false)
+	private Instant takenAt;
+}
@@ -0,0 +1,12 @@
+package com.pms.dio.repository;
+
+public interface BeerBrandStock {
+
+	String getBrand();
+
+	Long getBeers();
+
+	Long getQuantity();
+
+	Long getCapacity();
+}
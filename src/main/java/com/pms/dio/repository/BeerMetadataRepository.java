@@ -0,0 +1,23 @@
+package com.pms.dio.repository;
+
+import java.util.Optional;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.repository.Repository;
+
+import com.pms.dio.model.BeerMetadata;
+
+/**
+ * Loads {@link BeerMetadata} by primary key, the one lookup the second-level cache serves, or by name
+ * through the {@value #BY_NAME_CACHE} cache. Both caches hold only fields that never change, so no stock
+ * change has to evict them; unknown names are not cached.
+ */
+public interface BeerMetadataRepository extends Repository<BeerMetadata, Long> {
+
+	String BY_NAME_CACHE = "beersByName";
+
+	Optional<BeerMetadata> findById(Long id);
+
+	@Cacheable(cacheNames = BY_NAME_CACHE, unless = "#result == null")
+	Optional<BeerMetadata> findByName(String name);
+}
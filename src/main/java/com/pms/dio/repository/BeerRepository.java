@@ -1,13 +1,95 @@
 package com.pms.dio.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.pms.dio.model.Beer;
 
 public interface BeerRepository extends JpaRepository<Beer, Long>{
-	
+
 	Optional<Beer> findByName (String name);
 
+	@Query("select b.quantity as quantity, b.version as version, b.updatedAt as updatedAt from Beer b where b.id = :id")
+	Optional<BeerStockState> findStockStateById(@Param("id") Long id);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("delete from Beer b where b.id = :id and b.version = :version")
+	int deleteAtVersion(@Param("id") Long id, @Param("version") long version);
+
+	@Query("select b.name from Beer b where b.name in :names")
+	List<String> findExistingNames(@Param("names") Collection<String> names);
+
+	@Query("select b from Beer b where b.id > :afterId order by b.id")
+	List<Beer> findPageOrderById(@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("select b from Beer b where b.name > :afterName or (b.name = :afterName and b.id > :afterId) "
+			+ "order by b.name, b.id")
+	List<Beer> findPageOrderByName(@Param("afterName") String afterName, @Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("select b from Beer b where b.brand > :afterBrand or (b.brand = :afterBrand and b.id > :afterId) "
+			+ "order by b.brand, b.id")
+	List<Beer> findPageOrderByBrand(@Param("afterBrand") String afterBrand, @Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("select b.type as type, count(b) as beers, sum(b.quantity) as quantity, sum(b.max) as capacity"
+			+ " from Beer b group by b.type order by b.type")
+	List<BeerTypeStock> sumQuantityByType();
+
+	@Query("select b.brand as brand, count(b) as beers, sum(b.quantity) as quantity, sum(b.max) as capacity"
+			+ " from Beer b group by b.brand order by b.brand")
+	List<BeerBrandStock> sumQuantityByBrand();
+
+	@Query("select b from Beer b where b.max > 0 and b.quantity * 1.0 / b.max <= :maxFillRatio order by b.quantity * 1.0 / b.max, b.id")
+	List<Beer> findLowStock(@Param("maxFillRatio") double maxFillRatio, Pageable pageable);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Beer b set b.quantity = b.quantity + :delta, b.version = b.version + 1, b.updatedAt = current_timestamp "
+			+ "where b.id = :id and b.quantity + :delta between b.reserved + b.allocated and b.max")
+	int adjustQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Beer b set b.quantity = b.quantity + :delta, b.version = b.version + 1, b.updatedAt = current_timestamp "
+			+ "where b.id = :id and b.version = :version and b.quantity + :delta between b.reserved + b.allocated and b.max")
+	int adjustQuantityAtVersion(@Param("id") Long id, @Param("delta") int delta, @Param("version") long version);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Beer b set b.reserved = b.reserved + :quantity where b.id = :id and b.quantity - b.reserved - b.allocated >= :quantity")
+	int reserve(@Param("id") Long id, @Param("quantity") int quantity);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Beer b set b.reserved = b.reserved - :quantity where b.id = :id")
+	int releaseReserved(@Param("id") Long id, @Param("quantity") int quantity);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Beer b set b.quantity = b.quantity - :quantity, b.reserved = b.reserved - :quantity, "
+			+ "b.version = b.version + 1, b.updatedAt = current_timestamp where b.id = :id")
+	int confirmReserved(@Param("id") Long id, @Param("quantity") int quantity);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Beer b set b.quantity = b.quantity + :delta, b.allocated = b.allocated + :delta, "
+			+ "b.version = b.version + 1, b.updatedAt = current_timestamp "
+			+ "where b.id = :id and b.quantity + :delta <= b.max and b.allocated + :delta >= 0")
+	int adjustAllocated(@Param("id") Long id, @Param("delta") int delta);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select b from Beer b where b.id in :ids order by b.id")
+	List<Beer> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,29 @@
+package com.pms.dio.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.pms.dio.model.BeerReservation;
+
+/**
+ * Settling a reservation starts by deleting its row; whichever of confirm, release or expiry deletes it
+ * first owns the reserved units.
+ */
+public interface BeerReservationRepository extends JpaRepository<BeerReservation, Long> {
+
+	@Modifying
+	@Query("delete from BeerReservation r where r.id = :id")
+	int claim(@Param("id") Long id);
+
+	@Modifying
+	@Query("delete from BeerReservation r where r.id = :id and r.expiresAt > :now")
+	int claimActive(@Param("id") Long id, @Param("now") Instant now);
+
+	@Modifying
+	@Query("delete from BeerReservation r where r.id = :id and r.expiresAt <= :now")
+	int claimExpired(@Param("id") Long id, @Param("now") Instant now);
+}
@@ -0,0 +1,12 @@
+package com.pms.dio.repository;
+
+import java.time.Instant;
+
+public interface BeerStockState {
+
+	Integer getQuantity();
+
+	Long getVersion();
+
+	Instant getUpdatedAt();
+}
@@ -0,0 +1,14 @@
+package com.pms.dio.repository;
+
+import com.pms.dio.enums.BeerType;
+
+public interface BeerTypeStock {
+
+	BeerType getType();
+
+	Long getBeers();
+
+	Long getQuantity();
+
+	Long getCapacity();
+}
@@ -0,0 +1,43 @@
+package com.pms.dio.repository;
+
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pms.dio.model.BeerWarehouseStock;
+
+/**
+ * Per-location stock. Both updates are single statements that lock only the (beer, warehouse) row, so
+ * moving units between locations never touches the parent {@code Beer} row. The native merge names the
+ * table it writes, otherwise Hibernate would evict every second-level cache region after it.
+ */
+public interface BeerWarehouseStockRepository extends JpaRepository<BeerWarehouseStock, BeerWarehouseStock.Key> {
+
+	List<BeerWarehouseStock> findByBeerIdOrderByWarehouse(Long beerId);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = "beer_warehouse_stock"))
+	@Query(nativeQuery = true, value = "merge into beer_warehouse_stock s "
+			+ "using (select cast(:beerId as bigint) as beer_id, cast(:warehouse as varchar(64)) as warehouse) v "
+			+ "on (s.beer_id = v.beer_id and s.warehouse = v.warehouse) "
+			+ "when matched then update set s.quantity = s.quantity + :quantity "
+			+ "when not matched then insert (beer_id, warehouse, quantity) values (v.beer_id, v.warehouse, :quantity)")
+	int addStock(@Param("beerId") Long beerId, @Param("warehouse") String warehouse, @Param("quantity") int quantity);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update BeerWarehouseStock s set s.quantity = s.quantity - :quantity "
+			+ "where s.beerId = :beerId and s.warehouse = :warehouse and s.quantity >= :quantity")
+	int takeStock(@Param("beerId") Long beerId, @Param("warehouse") String warehouse, @Param("quantity") int quantity);
+
+	@Transactional
+	@Modifying
+	@Query("delete from BeerWarehouseStock s where s.beerId = :beerId")
+	int deleteByBeerId(@Param("beerId") Long beerId);
+}
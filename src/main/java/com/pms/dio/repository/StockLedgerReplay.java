@@ -0,0 +1,8 @@
+package com.pms.dio.repository;
+
+public interface StockLedgerReplay {
+
+	Long getDelta();
+
+	Long getEntries();
+}
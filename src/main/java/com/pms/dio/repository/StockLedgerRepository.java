@@ -0,0 +1,20 @@
+package com.pms.dio.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.pms.dio.model.StockLedgerEntry;
+
+public interface StockLedgerRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+	List<StockLedgerEntry> findByBeerIdAndIdGreaterThanOrderById(Long beerId, Long afterId, Pageable pageable);
+
+	@Query("select coalesce(sum(e.delta), 0) as delta, count(e) as entries from StockLedgerEntry e "
+			+ "where e.beerId = :beerId and e.occurredAt > :after and e.occurredAt <= :asOf")
+	StockLedgerReplay replay(@Param("beerId") Long beerId, @Param("after") Instant after, @Param("asOf") Instant asOf);
+}
@@ -0,0 +1,13 @@
+package com.pms.dio.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.pms.dio.model.StockSnapshot;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+	Optional<StockSnapshot> findFirstByBeerIdAndTakenAtLessThanEqualOrderByTakenAtDescIdDesc(Long beerId, Instant asOf);
+}
@@ -0,0 +1,193 @@
+package com.pms.dio.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.pms.dio.config.BeerChangeFeedProperties;
+import com.pms.dio.dto.BeerChangeDTO;
+import com.pms.dio.exception.BeerChangesExpiredException;
+
+/**
+ * Bounded, in-memory log of committed {@link BeerChangedEvent}s numbered by a gap-free sequence.
+ * Consumers poll {@link #changesSince} or hold an SSE stream; once a sequence has been overwritten
+ * they get a {@link BeerChangesExpiredException} and have to re-read the catalog.
+ * <p>
+ * Each SSE subscriber reads the log from its own last sent sequence, so the log is its bounded queue and
+ * nothing is buffered per change. A change only schedules a drain of every subscriber that is not
+ * already being drained, on a fixed pool of {@code beer.changes.dispatch-threads}, so a subscriber whose
+ * blocking send stalls holds up one pool thread and no other subscriber. A subscriber that ends a page
+ * of sends more than {@code beer.changes.subscriber-max-lag} changes behind, and no closer than it began,
+ * is completed; its client reconnects with {@code Last-Event-ID} and catches up from the log, which a
+ * reconnecting subscriber can do however far behind it starts.
+ */
+@Component
+public class BeerChangeFeed {
+
+	public static final int MAX_CHANGES_PAGE_SIZE = 1000;
+
+	private static final String CHANGE_EVENT_NAME = "beer-change";
+
+	@Autowired
+	private BeerChangeFeedProperties properties;
+
+	private ExecutorService dispatcher;
+
+	private final List<Subscriber> subscribers = new ArrayList<>();
+
+	private BeerChangeDTO[] changes;
+
+	private long nextSequence = 1;
+
+	private volatile boolean closed;
+
+	@PostConstruct
+	public void init() {
+		changes = new BeerChangeDTO[properties.getCapacity()];
+		dispatcher = Executors.newFixedThreadPool(properties.getDispatchThreads(), runnable -> {
+			Thread thread = new Thread(runnable, "beer-change-feed");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onBeerChanged(BeerChangedEvent event) {
+		append(event);
+		subscribers.forEach(this::schedule);
+	}
+
+	public synchronized long getLastSequence() {
+		return nextSequence - 1;
+	}
+
+	public synchronized List<BeerChangeDTO> changesSince(long since, int limit) throws BeerChangesExpiredException {
+		long oldestSequence = Math.max(1, nextSequence - changes.length);
+		if (since < oldestSequence - 1) {
+			throw new BeerChangesExpiredException(since, oldestSequence);
+		}
+		int pageSize = Math.min(Math.max(limit, 1), MAX_CHANGES_PAGE_SIZE);
+		List<BeerChangeDTO> page = new ArrayList<>();
+		for (long sequence = since + 1; sequence < nextSequence && page.size() < pageSize; sequence++) {
+			page.add(changes[index(sequence)]);
+		}
+		return page;
+	}
+
+	public SseEmitter subscribe(Long since) throws BeerChangesExpiredException {
+		long from = since == null ? getLastSequence() : since;
+		changesSince(from, 1);
+		Subscriber subscriber = new Subscriber(newEmitter(properties.getStreamTimeout().toMillis()), from);
+		subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+		subscriber.emitter.onTimeout(subscriber.emitter::complete);
+		synchronized (this) {
+			subscribers.add(subscriber);
+			schedule(subscriber);
+		}
+		return subscriber.emitter;
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		closed = true;
+		subscribers.forEach(this::schedule);
+		dispatcher.shutdown();
+	}
+
+	SseEmitter newEmitter(long timeoutMillis) {
+		return new SseEmitter(timeoutMillis);
+	}
+
+	private synchronized void unsubscribe(Subscriber subscriber) {
+		subscribers.remove(subscriber);
+	}
+
+	private void schedule(Subscriber subscriber) {
+		if (!dispatcher.isShutdown() && subscriber.scheduled.compareAndSet(false, true)) {
+			dispatcher.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void append(BeerChangedEvent event) {
+		BeerChangeDTO change = BeerChangeDTO.builder()
+				.sequence(nextSequence)
+				.type(event.getChangeType())
+				.timestamp(Instant.now())
+				.delta(event.getDelta())
+				.beer(event.getBeer())
+				.build();
+		changes[index(nextSequence++)] = change;
+	}
+
+	/**
+	 * Sends every change the subscriber has not seen yet. Clearing {@code scheduled} before the last
+	 * look at the log means a change appended meanwhile either is seen here or schedules a new drain.
+	 */
+	private void drain(Subscriber subscriber) {
+		try {
+			while (true) {
+				long lagBefore = getLastSequence() - subscriber.lastSent;
+				List<BeerChangeDTO> page = closed ? List.of() : changesSince(subscriber.lastSent, MAX_CHANGES_PAGE_SIZE);
+				for (BeerChangeDTO change : page) {
+					subscriber.send(change);
+				}
+				long lagAfter = getLastSequence() - subscriber.lastSent;
+				if (closed || (lagAfter > properties.getSubscriberMaxLag() && lagAfter >= lagBefore)) {
+					unsubscribe(subscriber);
+					subscriber.emitter.complete();
+					return;
+				}
+				if (page.isEmpty()) {
+					subscriber.scheduled.set(false);
+					if (subscriber.lastSent == getLastSequence() || !subscriber.scheduled.compareAndSet(false, true)) {
+						return;
+					}
+				}
+			}
+		} catch (BeerChangesExpiredException | IOException e) {
+			unsubscribe(subscriber);
+			subscriber.emitter.completeWithError(e);
+		} catch (IllegalStateException e) {
+			unsubscribe(subscriber);
+		}
+	}
+
+	private int index(long sequence) {
+		return (int) ((sequence - 1) % changes.length);
+	}
+
+	private static class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private long lastSent;
+
+		Subscriber(SseEmitter emitter, long lastSent) {
+			this.emitter = emitter;
+			this.lastSent = lastSent;
+		}
+
+		void send(BeerChangeDTO change) throws IOException {
+			emitter.send(SseEmitter.event()
+					.id(Long.toString(change.getSequence()))
+					.name(CHANGE_EVENT_NAME)
+					.data(change, MediaType.APPLICATION_JSON));
+			lastSent = change.getSequence();
+		}
+	}
+}
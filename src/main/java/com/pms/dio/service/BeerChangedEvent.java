@@ -0,0 +1,24 @@
+package com.pms.dio.service;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.enums.BeerChangeType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link BeerService} for every committed catalog or stock change. {@code beer} is the
+ * state right after the change and {@code delta} the applied stock adjustment (0 for create/delete).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BeerChangedEvent {
+
+	private final BeerChangeType changeType;
+
+	private final BeerDTO beer;
+
+	private final int delta;
+}
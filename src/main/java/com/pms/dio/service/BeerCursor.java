@@ -0,0 +1,54 @@
+package com.pms.dio.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.pms.dio.enums.BeerSort;
+import com.pms.dio.exception.InvalidCursorException;
+import com.pms.dio.model.Beer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+class BeerCursor {
+
+	private static final char SEPARATOR = '\n';
+
+	private final BeerSort sort;
+
+	private final String key;
+
+	private final Long id;
+
+	static BeerCursor first(BeerSort sort) {
+		return new BeerCursor(sort, "", 0L);
+	}
+
+	static BeerCursor after(BeerSort sort, Beer beer) {
+		String key = sort == BeerSort.NAME ? beer.getName() : sort == BeerSort.BRAND ? beer.getBrand() : "";
+		return new BeerCursor(sort, key, beer.getId());
+	}
+
+	static BeerCursor decode(String token, BeerSort sort) throws InvalidCursorException {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int firstSeparator = decoded.indexOf(SEPARATOR);
+			int lastSeparator = decoded.lastIndexOf(SEPARATOR);
+			if (firstSeparator < 0 || firstSeparator == lastSeparator
+					|| BeerSort.valueOf(decoded.substring(0, firstSeparator)) != sort) {
+				throw new InvalidCursorException(token);
+			}
+			return new BeerCursor(sort, decoded.substring(firstSeparator + 1, lastSeparator),
+					Long.valueOf(decoded.substring(lastSeparator + 1)));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidCursorException(token);
+		}
+	}
+
+	String encode() {
+		String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
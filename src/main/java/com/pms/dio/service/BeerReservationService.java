@@ -0,0 +1,139 @@
+package com.pms.dio.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pms.dio.config.BeerReservationProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerReservationConflictException;
+import com.pms.dio.exception.BeerReservationNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerReservation;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerReservationRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Holds units of a beer for a while before checkout. Reserving raises {@code Beer.reserved} only while
+ * the unassigned {@code quantity - reserved - allocated} covers the request, and decrements never take
+ * the quantity below the reserved units, so confirming a hold cannot fail on stock. Unconfirmed holds are released by the
+ * {@link BeerReservationSweeper} when they expire.
+ */
+@Service
+public class BeerReservationService {
+
+	private static final String RESERVATION_TIMER = "beer.reservations";
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerReservationRepository reservationRepo;
+
+	@Autowired
+	private StockBuffer stockBuffer;
+
+	@Autowired
+	private BeerReservationProperties properties;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private final BeerMapper beerMap = BeerMapper.INSTANCE;
+
+	@Transactional
+	@Timed(value = RESERVATION_TIMER, histogram = true)
+	public BeerReservationDTO reserve(Long beerId, int quantity, Duration ttl)
+			throws BeerNotFoundException, BeerStockExceededException, BeerReservationConflictException {
+		verifyIfNotBuffered(beerId);
+		if (beerRepo.reserve(beerId, quantity) == 0) {
+			Beer beer = beerRepo.findById(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+			throw new BeerStockExceededException(beerId, -quantity, beer.getQuantity(), beer.getReserved(), beer.getAllocated(), beer.getMax());
+		}
+		Instant expiresAt = Instant.now().plus(clampTtl(ttl)).truncatedTo(ChronoUnit.MILLIS);
+		BeerReservation reservation = reservationRepo.save(new BeerReservation(null, beerId, quantity, expiresAt));
+		BeerReservationDTO reservationDTO = toDTO(reservation);
+		eventPublisher.publishEvent(reservationDTO);
+		return reservationDTO;
+	}
+
+	@Transactional(rollbackFor = BeerNotFoundException.class)
+	@Timed(value = RESERVATION_TIMER, histogram = true)
+	public BeerDTO confirm(Long reservationId)
+			throws BeerReservationNotFoundException, BeerReservationConflictException, BeerNotFoundException {
+		BeerReservation reservation = reservationRepo.findById(reservationId)
+				.orElseThrow(() -> new BeerReservationNotFoundException(reservationId));
+		verifyIfNotBuffered(reservation.getBeerId());
+		if (reservationRepo.claimActive(reservationId, Instant.now()) == 0) {
+			throw new BeerReservationNotFoundException(reservationId);
+		}
+		if (beerRepo.confirmReserved(reservation.getBeerId(), reservation.getQuantity()) == 0) {
+			throw new BeerNotFoundException(reservation.getBeerId());
+		}
+		BeerDTO confirmedBeerDTO = beerMap.toDTO(beerRepo.findById(reservation.getBeerId()).get());
+		eventPublisher.publishEvent(new BeerChangedEvent(BeerChangeType.STOCK_CHANGED, confirmedBeerDTO, -reservation.getQuantity()));
+		return confirmedBeerDTO;
+	}
+
+	@Transactional
+	@Timed(value = RESERVATION_TIMER, histogram = true)
+	public void release(Long reservationId) throws BeerReservationNotFoundException {
+		BeerReservation reservation = reservationRepo.findById(reservationId)
+				.orElseThrow(() -> new BeerReservationNotFoundException(reservationId));
+		if (reservationRepo.claim(reservationId) == 0) {
+			throw new BeerReservationNotFoundException(reservationId);
+		}
+		beerRepo.releaseReserved(reservation.getBeerId(), reservation.getQuantity());
+	}
+
+	/**
+	 * Releases the hold if it is still open and past its expiry; returns whether it did.
+	 */
+	@Transactional
+	public boolean expire(Long reservationId) {
+		Optional<BeerReservation> reservation = reservationRepo.findById(reservationId);
+		if (reservation.isEmpty() || reservationRepo.claimExpired(reservationId, Instant.now()) == 0) {
+			return false;
+		}
+		beerRepo.releaseReserved(reservation.get().getBeerId(), reservation.get().getQuantity());
+		return true;
+	}
+
+	private void verifyIfNotBuffered(Long beerId) throws BeerReservationConflictException {
+		if (stockBuffer.isBuffered(beerId)) {
+			throw new BeerReservationConflictException(beerId);
+		}
+	}
+
+	private Duration clampTtl(Duration ttl) {
+		if (ttl == null) {
+			return properties.getDefaultTtl();
+		}
+		if (ttl.compareTo(Duration.ofSeconds(1)) < 0) {
+			return Duration.ofSeconds(1);
+		}
+		return ttl.compareTo(properties.getMaxTtl()) > 0 ? properties.getMaxTtl() : ttl;
+	}
+
+	private BeerReservationDTO toDTO(BeerReservation reservation) {
+		return BeerReservationDTO.builder()
+				.id(reservation.getId())
+				.beerId(reservation.getBeerId())
+				.quantity(reservation.getQuantity())
+				.expiresAt(reservation.getExpiresAt())
+				.build();
+	}
+}
@@ -0,0 +1,106 @@
+package com.pms.dio.service;
+
+import java.time.Instant;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.repository.BeerReservationRepository;
+
+/**
+ * Expires reservations from a {@link DelayQueue} ordered by deadline, so the sweeper thread sleeps until
+ * the next hold is due instead of scanning them. Holds are queued once their reservation commits, and
+ * the open ones are re-queued from the database at startup. Confirmed or released holds stay queued and
+ * are dropped when they come due.
+ */
+@Component
+public class BeerReservationSweeper implements SmartInitializingSingleton {
+
+	private static final Logger log = LoggerFactory.getLogger(BeerReservationSweeper.class);
+
+	private static final long RETRY_DELAY_MILLIS = 1000;
+
+	@Autowired
+	private BeerReservationService reservationService;
+
+	@Autowired
+	private BeerReservationRepository reservationRepo;
+
+	private final DelayQueue<Hold> holds = new DelayQueue<>();
+
+	private final Thread sweeper = new Thread(this::sweep, "beer-reservation-sweeper");
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		reservationRepo.findAll().forEach(reservation -> schedule(reservation.getId(), reservation.getExpiresAt()));
+		sweeper.setDaemon(true);
+		sweeper.start();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onReserved(BeerReservationDTO reservation) {
+		schedule(reservation.getId(), reservation.getExpiresAt());
+	}
+
+	public int getPendingHolds() {
+		return holds.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sweeper.interrupt();
+	}
+
+	private void schedule(Long reservationId, Instant expiresAt) {
+		holds.add(new Hold(reservationId, expiresAt.toEpochMilli()));
+	}
+
+	private void sweep() {
+		while (!Thread.currentThread().isInterrupted()) {
+			Hold hold;
+			try {
+				hold = holds.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				reservationService.expire(hold.reservationId);
+			} catch (RuntimeException e) {
+				log.warn("Could not expire reservation {}, retrying", hold.reservationId, e);
+				holds.add(new Hold(hold.reservationId, System.currentTimeMillis() + RETRY_DELAY_MILLIS));
+			}
+		}
+	}
+
+	private static class Hold implements Delayed {
+
+		private final Long reservationId;
+
+		private final long deadlineMillis;
+
+		Hold(Long reservationId, long deadlineMillis) {
+			this.reservationId = reservationId;
+			this.deadlineMillis = deadlineMillis;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(deadlineMillis, ((Hold) other).deadlineMillis);
+		}
+	}
+}
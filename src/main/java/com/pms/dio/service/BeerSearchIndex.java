@@ -0,0 +1,320 @@
+package com.pms.dio.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerSearchCriteriaDTO;
+import com.pms.dio.dto.BeerSearchResultDTO;
+import com.pms.dio.enums.BeerType;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * In-memory trigram index over beer names and brands. It is loaded from the database once all beans
+ * are ready and then kept in sync through {@link BeerChangedEvent}s, applied only after the change
+ * commits. Queries of three or more characters match substrings; shorter ones match word prefixes.
+ * A deleted beer leaves the postings of its terms and its ordinal is handed to the next beer indexed,
+ * so churn grows neither the postings nor the {@code beers} table.
+ */
+@Component
+public class BeerSearchIndex implements SmartInitializingSingleton {
+
+	private static final char WORD_START = '\u0002';
+
+	private static final int TRIGRAM_LENGTH = 3;
+
+	private static final int BRAND_FACET_LIMIT = 20;
+
+	@Autowired
+	private BeerService beerService;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<Long, Integer> ordinalsById = new HashMap<>();
+
+	private final Map<String, Postings> postingsByTerm = new HashMap<>();
+
+	private IndexedBeer[] beers = new IndexedBeer[1024];
+
+	private int nextOrdinal;
+
+	private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		beerService.exportAll(this::index);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBeerChanged(BeerChangedEvent event) {
+		switch (event.getChangeType()) {
+		case CREATED:
+			index(event.getBeer());
+			break;
+		case DELETED:
+			remove(event.getBeer().getId());
+			break;
+		case STOCK_CHANGED:
+			adjustQuantity(event.getBeer(), event.getDelta());
+			break;
+		}
+	}
+
+	@Timed(value = "beer.search", histogram = true)
+	public BeerSearchResultDTO search(BeerSearchCriteriaDTO criteria) {
+		String query = criteria.getQ() == null ? "" : normalize(criteria.getQ().trim());
+		List<BeerDTO> matches = new ArrayList<>(Math.min(criteria.getSize(), 100));
+		Map<BeerType, Long> types = new EnumMap<>(BeerType.class);
+		Map<String, Long> brands = new HashMap<>();
+		long total = 0;
+		lock.readLock().lock();
+		try {
+			Postings candidates = null;
+			int candidateCount = nextOrdinal;
+			if (!query.isEmpty()) {
+				candidates = candidatesFor(query);
+				candidateCount = candidates == null ? 0 : candidates.size;
+			}
+			for (int i = 0; i < candidateCount; i++) {
+				IndexedBeer beer = beers[candidates == null ? i : candidates.ordinals[i]];
+				if (beer == null || !beer.matches(query) || !beer.matches(criteria)) {
+					continue;
+				}
+				total++;
+				types.merge(beer.type, 1L, Long::sum);
+				brands.merge(beer.brand, 1L, Long::sum);
+				if (matches.size() < criteria.getSize()) {
+					matches.add(beer.toDTO());
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return BeerSearchResultDTO.builder()
+				.total(total)
+				.beers(matches)
+				.types(types)
+				.brands(topBrands(brands))
+				.build();
+	}
+
+	private Postings candidatesFor(String query) {
+		if (query.length() < TRIGRAM_LENGTH) {
+			return postingsByTerm.get(WORD_START + query);
+		}
+		Postings smallest = null;
+		for (int i = 0; i + TRIGRAM_LENGTH <= query.length(); i++) {
+			Postings postings = postingsByTerm.get(query.substring(i, i + TRIGRAM_LENGTH));
+			if (postings == null) {
+				return null;
+			}
+			if (smallest == null || postings.size < smallest.size) {
+				smallest = postings;
+			}
+		}
+		return smallest;
+	}
+
+	private void index(BeerDTO beerDTO) {
+		IndexedBeer beer = new IndexedBeer(beerDTO);
+		Set<String> terms = beer.terms();
+		lock.writeLock().lock();
+		try {
+			if (ordinalsById.containsKey(beer.id)) {
+				return;
+			}
+			int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+			if (ordinal == beers.length) {
+				beers = Arrays.copyOf(beers, beers.length * 2);
+			}
+			beers[ordinal] = beer;
+			ordinalsById.put(beer.id, ordinal);
+			for (String term : terms) {
+				postingsByTerm.computeIfAbsent(term, t -> new Postings()).add(ordinal);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			Integer ordinal = ordinalsById.remove(id);
+			if (ordinal == null) {
+				return;
+			}
+			for (String term : beers[ordinal].terms()) {
+				Postings postings = postingsByTerm.get(term);
+				postings.remove(ordinal);
+				if (postings.size == 0) {
+					postingsByTerm.remove(term);
+				}
+			}
+			beers[ordinal] = null;
+			freeOrdinals.push(ordinal);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void adjustQuantity(BeerDTO adjustedBeer, int delta) {
+		lock.writeLock().lock();
+		try {
+			Integer ordinal = ordinalsById.get(adjustedBeer.getId());
+			if (ordinal != null) {
+				IndexedBeer beer = beers[ordinal];
+				beer.quantity += delta;
+				if (adjustedBeer.getVersion() != null && (beer.version == null || adjustedBeer.getVersion() > beer.version)) {
+					beer.version = adjustedBeer.getVersion();
+					beer.updatedAt = adjustedBeer.getUpdatedAt();
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static void addTerms(String text, Set<String> terms) {
+		for (int i = 0; i < text.length(); i++) {
+			if (i + TRIGRAM_LENGTH <= text.length()) {
+				terms.add(text.substring(i, i + TRIGRAM_LENGTH));
+			}
+			if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+				terms.add(WORD_START + text.substring(i, i + 1));
+				if (i + 1 < text.length()) {
+					terms.add(WORD_START + text.substring(i, i + 2));
+				}
+			}
+		}
+	}
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	private static Map<String, Long> topBrands(Map<String, Long> brands) {
+		Map<String, Long> topBrands = new LinkedHashMap<>();
+		brands.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+				.limit(BRAND_FACET_LIMIT)
+				.forEach(brand -> topBrands.put(brand.getKey(), brand.getValue()));
+		return topBrands;
+	}
+
+	/**
+	 * Ordinals of the beers holding a term, kept sorted so a reused ordinal lands where a scan of
+	 * {@code beers} would meet it.
+	 */
+	private static class Postings {
+
+		private int[] ordinals = new int[4];
+
+		private int size;
+
+		void add(int ordinal) {
+			int index = -Arrays.binarySearch(ordinals, 0, size, ordinal) - 1;
+			if (index < 0) {
+				return;
+			}
+			if (size == ordinals.length) {
+				ordinals = Arrays.copyOf(ordinals, size * 2);
+			}
+			System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+			ordinals[index] = ordinal;
+			size++;
+		}
+
+		void remove(int ordinal) {
+			int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+			if (index >= 0) {
+				System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+				size--;
+			}
+		}
+	}
+
+	private static class IndexedBeer {
+
+		private final Long id;
+		private final String name;
+		private final String brand;
+		private final String normalizedName;
+		private final String normalizedBrand;
+		private final int max;
+		private final BeerType type;
+		private int quantity;
+		private Long version;
+		private Instant updatedAt;
+
+		IndexedBeer(BeerDTO beerDTO) {
+			id = beerDTO.getId();
+			name = beerDTO.getName();
+			brand = beerDTO.getBrand();
+			normalizedName = normalize(name);
+			normalizedBrand = normalize(brand);
+			max = beerDTO.getMax();
+			type = beerDTO.getType();
+			quantity = beerDTO.getQuantity();
+			version = beerDTO.getVersion();
+			updatedAt = beerDTO.getUpdatedAt();
+		}
+
+		Set<String> terms() {
+			Set<String> terms = new HashSet<>();
+			addTerms(normalizedName, terms);
+			addTerms(normalizedBrand, terms);
+			return terms;
+		}
+
+		boolean matches(String query) {
+			if (query.isEmpty()) {
+				return true;
+			}
+			if (query.length() < TRIGRAM_LENGTH) {
+				return startsWordWith(normalizedName, query) || startsWordWith(normalizedBrand, query);
+			}
+			return normalizedName.contains(query) || normalizedBrand.contains(query);
+		}
+
+		boolean matches(BeerSearchCriteriaDTO criteria) {
+			return (criteria.getType() == null || criteria.getType() == type)
+					&& (criteria.getMinQuantity() == null || quantity >= criteria.getMinQuantity())
+					&& (criteria.getMaxQuantity() == null || quantity <= criteria.getMaxQuantity())
+					&& (criteria.getMaxFillRatio() == null || quantity <= criteria.getMaxFillRatio() * max);
+		}
+
+		BeerDTO toDTO() {
+			return new BeerDTO(id, name, brand, max, quantity, type, version, updatedAt);
+		}
+
+		private static boolean startsWordWith(String text, String prefix) {
+			for (int i = text.indexOf(prefix); i >= 0; i = text.indexOf(prefix, i + 1)) {
+				if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
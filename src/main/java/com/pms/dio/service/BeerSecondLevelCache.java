@@ -0,0 +1,29 @@
+package com.pms.dio.service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.model.BeerMetadata;
+
+/**
+ * Evicts the metadata of deleted beers from Hibernate's second-level cache. The region is read-only
+ * and the JPQL delete of the {@code beer} row does not touch it, so this runs once the delete has
+ * committed; a lookup in between still finds the row and would cache it again.
+ */
+@Component
+public class BeerSecondLevelCache {
+
+	@PersistenceUnit
+	private EntityManagerFactory entityManagerFactory;
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBeerChanged(BeerChangedEvent event) {
+		if (event.getChangeType() == BeerChangeType.DELETED) {
+			entityManagerFactory.getCache().evict(BeerMetadata.class, event.getBeer().getId());
+		}
+	}
+}
@@ -1,47 +1,229 @@
 package com.pms.dio.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerImportResultDTO;
+import com.pms.dio.dto.BeerPageDTO;
+import com.pms.dio.dto.BeerStockSummaryDTO;
+import com.pms.dio.dto.StockMovementDTO;
+import com.pms.dio.dto.StockMovementResultDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.enums.BeerSort;
+import com.pms.dio.enums.StockMovementStatus;
 import com.pms.dio.exception.BeerAlreadyRegisteredException;
 import com.pms.dio.exception.BeerNotFoundException;
 import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerVersionMismatchException;
+import com.pms.dio.exception.InvalidCursorException;
 import com.pms.dio.mapper.BeerMapper;
 import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.repository.BeerMetadataRepository;
 import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerStockState;
+import com.pms.dio.repository.BeerWarehouseStockRepository;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
 public class BeerService {
 
+	public static final String BEERS_BY_NAME_CACHE = BeerMetadataRepository.BY_NAME_CACHE;
+
+	private static final String SERVICE_TIMER = "beer.service";
+
 	@Autowired
 	private BeerRepository beerRepo;
 
+	@Autowired
+	private BeerMetadataRepository metadataRepo;
+
+	@Autowired
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Autowired
+	private StockBuffer stockBuffer;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	private final BeerMapper beerMap = BeerMapper.INSTANCE;
 
+	private final StockAdjustmentStats stockStats = new StockAdjustmentStats();
+
+	private static final int MOVEMENT_LOCK_CHUNK_SIZE = 1000;
+
+	private static final int IMPORT_CHUNK_SIZE = 500;
+
+	private static final int EXPORT_PAGE_SIZE = 500;
+
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	@CacheEvict(cacheNames = BEERS_BY_NAME_CACHE, key = "#result.name")
+	@Transactional
+	@Timed(value = SERVICE_TIMER, histogram = true)
 	public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
 		verifyIfIsAlreadyRegistered(beerDTO.getName());
 		Beer beer = beerMap.toModel(beerDTO);
 		Beer saveBeer = beerRepo.save(beer);
-		return beerMap.toDTO(saveBeer);
+		BeerDTO savedBeerDTO = beerMap.toDTO(saveBeer);
+		publishChange(BeerChangeType.CREATED, savedBeerDTO, 0);
+		return savedBeerDTO;
+	}
+
+	@Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public BeerImportResultDTO importBeers(List<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException {
+		verifyIfAnyIsAlreadyRegistered(beerDTOs, new HashSet<>());
+		for (int from = 0; from < beerDTOs.size(); from += IMPORT_CHUNK_SIZE) {
+			insertChunk(beerDTOs.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, beerDTOs.size())));
+		}
+		return new BeerImportResultDTO(beerDTOs.size());
+	}
+
+	@Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public BeerImportResultDTO importBeers(Iterator<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException {
+		Set<String> importedNames = new HashSet<>();
+		List<BeerDTO> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+		int imported = 0;
+		while (beerDTOs.hasNext()) {
+			chunk.add(beerDTOs.next());
+			if (chunk.size() == IMPORT_CHUNK_SIZE || !beerDTOs.hasNext()) {
+				verifyIfAnyIsAlreadyRegistered(chunk, importedNames);
+				insertChunk(chunk);
+				imported += chunk.size();
+				chunk.clear();
+			}
+		}
+		return new BeerImportResultDTO(imported);
 	}
 
+	/**
+	 * Only the immutable metadata is cached by name and the stock is always read from the row, so a
+	 * lookup racing a stock change cannot leave a stale quantity behind. Metadata still cached for a
+	 * deleted beer finds no row, and the lookup falls back to the row of whichever beer has the name now.
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
 	public BeerDTO findByName(String name) throws BeerNotFoundException {
-		Beer foundBeer = beerRepo.findByName(name).orElseThrow(() -> new BeerNotFoundException(name));
-		return beerMap.toDTO(foundBeer);
+		BeerMetadata metadata = metadataRepo.findByName(name).orElseThrow(() -> new BeerNotFoundException(name));
+		Optional<BeerStockState> stockState = beerRepo.findStockStateById(metadata.getId());
+		if (stockState.isEmpty()) {
+			return toDTO(beerRepo.findByName(name).orElseThrow(() -> new BeerNotFoundException(name)));
+		}
+		BeerDTO beerDTO = beerMap.toDTO(metadata, stockState.get());
+		stockBuffer.overlay(beerDTO);
+		return beerDTO;
 	}
 
+	@Timed(value = SERVICE_TIMER, histogram = true)
 	public List<BeerDTO> listAll() {
-		return beerRepo.findAll().stream().map(beerMap::toDTO).collect(Collectors.toList());
+		return beerRepo.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+	}
+
+	/**
+	 * Walks the catalog in id order one keyset page at a time, each read in a short transaction of its
+	 * own, so a slow client holds neither a connection nor a snapshot for the whole export. The result is
+	 * not a point-in-time copy: a beer changed during the export shows its state when its page was read.
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public void exportAll(Consumer<BeerDTO> consumer) {
+		List<Beer> beers;
+		long afterId = 0;
+		do {
+			beers = beerRepo.findPageOrderById(afterId, PageRequest.of(0, EXPORT_PAGE_SIZE));
+			for (Beer beer : beers) {
+				consumer.accept(toDTO(beer));
+				entityManager.detach(beer);
+				afterId = beer.getId();
+			}
+		} while (beers.size() == EXPORT_PAGE_SIZE);
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public BeerPageDTO listPage(String cursorToken, int size, BeerSort sort) throws InvalidCursorException {
+		BeerCursor cursor = cursorToken == null ? BeerCursor.first(sort) : BeerCursor.decode(cursorToken, sort);
+		int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+		List<Beer> beers = findPage(cursor, PageRequest.of(0, pageSize + 1));
+		String nextCursor = null;
+		if (beers.size() > pageSize) {
+			beers = beers.subList(0, pageSize);
+			nextCursor = BeerCursor.after(sort, beers.get(pageSize - 1)).encode();
+		}
+		return new BeerPageDTO(beers.stream().map(this::toDTO).collect(Collectors.toList()), nextCursor);
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public List<BeerStockSummaryDTO> stockByType() {
+		return beerRepo.sumQuantityByType().stream()
+				.map(typeStock -> toSummary(typeStock.getType().name(), typeStock.getBeers(), typeStock.getQuantity(), typeStock.getCapacity()))
+				.collect(Collectors.toList());
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public List<BeerStockSummaryDTO> stockByBrand() {
+		return beerRepo.sumQuantityByBrand().stream()
+				.map(brandStock -> toSummary(brandStock.getBrand(), brandStock.getBeers(), brandStock.getQuantity(), brandStock.getCapacity()))
+				.collect(Collectors.toList());
 	}
 
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public List<BeerDTO> findLowStock(double maxFillRatio, int size) {
+		double fillRatio = Math.min(Math.max(maxFillRatio, 0), 1);
+		int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+		return beerRepo.findLowStock(fillRatio, PageRequest.of(0, pageSize)).stream()
+				.map(this::toDTO)
+				.collect(Collectors.toList());
+	}
+
+	@CacheEvict(cacheNames = BEERS_BY_NAME_CACHE, allEntries = true)
+	@Transactional
+	@Timed(value = SERVICE_TIMER, histogram = true)
 	public void deleteById(Long id) throws BeerNotFoundException {
-		verifyIfExists(id);
-		beerRepo.deleteById(id);
+		BeerMetadata metadata = verifyIfExists(id);
+		BeerStockState deletedState = deleteStockRow(id);
+		warehouseStockRepo.deleteByBeerId(id);
+		stockBuffer.evict(id);
+		publishChange(BeerChangeType.DELETED, beerMap.toDTO(metadata, deletedState), 0);
+	}
+
+	private List<Beer> findPage(BeerCursor cursor, PageRequest pageRequest) {
+		switch (cursor.getSort()) {
+		case NAME:
+			return beerRepo.findPageOrderByName(cursor.getKey(), cursor.getId(), pageRequest);
+		case BRAND:
+			return beerRepo.findPageOrderByBrand(cursor.getKey(), cursor.getId(), pageRequest);
+		default:
+			return beerRepo.findPageOrderById(cursor.getId(), pageRequest);
+		}
 	}
 
 	private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
@@ -51,31 +233,249 @@ public class BeerService {
 		}
 	}
 
-	private Beer verifyIfExists(Long id) throws BeerNotFoundException {
-		return beerRepo.findById(id).orElseThrow(() -> new BeerNotFoundException(id));
+	private void verifyIfAnyIsAlreadyRegistered(List<BeerDTO> beerDTOs, Set<String> importedNames) throws BeerAlreadyRegisteredException {
+		Set<String> duplicatedNames = new TreeSet<>();
+		for (BeerDTO beerDTO : beerDTOs) {
+			if (!importedNames.add(beerDTO.getName())) {
+				duplicatedNames.add(beerDTO.getName());
+			}
+		}
+		duplicatedNames.addAll(beerRepo.findExistingNames(
+				beerDTOs.stream().map(BeerDTO::getName).collect(Collectors.toSet())));
+		if (!duplicatedNames.isEmpty()) {
+			throw new BeerAlreadyRegisteredException(String.join(", ", duplicatedNames));
+		}
+	}
+
+	private void insertChunk(List<BeerDTO> beerDTOs) {
+		List<Beer> beers = new ArrayList<>(beerDTOs.size());
+		for (BeerDTO beerDTO : beerDTOs) {
+			Beer beer = beerMap.toModel(beerDTO);
+			beer.setId(null);
+			beers.add(beer);
+		}
+		beerRepo.saveAll(beers);
+		entityManager.flush();
+		beers.forEach(beer -> publishChange(BeerChangeType.CREATED, beerMap.toDTO(beer), 0));
+		entityManager.clear();
 	}
 
-	public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-		Beer beerToIncrementStock = verifyIfExists(id);
-		int beerStockAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-		if(beerStockAfterIncrement <= beerToIncrementStock.getMax()) {
-			beerToIncrementStock.setQuantity(beerStockAfterIncrement);
-			Beer incrementedBeerStock = beerRepo.save(beerToIncrementStock);
-			return beerMap.toDTO(incrementedBeerStock);
+	/**
+	 * Deletes the row only at the version just read, so the DELETED event carries the stock the row
+	 * had when it went away even if an increment commits in between.
+	 */
+	private BeerStockState deleteStockRow(Long id) throws BeerNotFoundException {
+		while (true) {
+			BeerStockState state = beerRepo.findStockStateById(id).orElseThrow(() -> new BeerNotFoundException(id));
+			if (beerRepo.deleteAtVersion(id, state.getVersion()) > 0) {
+				return state;
+			}
 		}
-		
-		throw new BeerStockExceededException(id, quantityToIncrement);
 	}
-	
+
+	private BeerMetadata verifyIfExists(Long id) throws BeerNotFoundException {
+		return metadataRepo.findById(id).orElseThrow(() -> new BeerNotFoundException(id));
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
+		return adjustStock(id, quantityToIncrement);
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public BeerDTO increment(Long id, int quantityToIncrement, long expectedVersion)
+			throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+		return adjustStock(id, quantityToIncrement, expectedVersion);
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
 	public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerStockExceededException, BeerNotFoundException {
-		Beer beerToDecrementStock = verifyIfExists(id);
-		int beerStockAfterDecremented = beerToDecrementStock.getQuantity() - quantityToDecrement;
-		if(beerStockAfterDecremented >=0) {
-			beerToDecrementStock.setQuantity(beerStockAfterDecremented);
-			Beer decrementedStock = beerRepo.save(beerToDecrementStock);
-			return beerMap.toDTO(decrementedStock);
-		}
-		throw new BeerStockExceededException(id, quantityToDecrement);
+		return adjustStock(id, -quantityToDecrement);
+	}
+
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public BeerDTO decrement(Long id, int quantityToDecrement, long expectedVersion)
+			throws BeerStockExceededException, BeerNotFoundException, BeerVersionMismatchException {
+		return adjustStock(id, -quantityToDecrement, expectedVersion);
+	}
+
+	/**
+	 * Applies the movements in one transaction. A write-behind beer is left alone and reported as
+	 * {@link StockMovementStatus#BUFFERED}: its buffer journals a movement at once, which a rollback
+	 * of the batch could not take back.
+	 */
+	@Transactional
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public List<StockMovementResultDTO> applyMovements(List<StockMovementDTO> movements) {
+		Map<Long, Beer> beersById = lockBeers(movements);
+		List<StockMovementResultDTO> results = new ArrayList<>(movements.size());
+		for (StockMovementDTO movement : movements) {
+			if (stockBuffer.isBuffered(movement.getId())) {
+				results.add(rejectBufferedMovement(movement));
+			} else {
+				results.add(applyMovement(beersById.get(movement.getId()), movement));
+			}
+		}
+		return results;
+	}
+
+	public StockAdjustmentStats getStockAdjustmentStats() {
+		return stockStats;
+	}
+
+	private BeerDTO adjustStock(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException {
+		try {
+			return adjustStock(id, delta, null);
+		} catch (BeerVersionMismatchException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private BeerDTO adjustStock(Long id, int delta, Long expectedVersion)
+			throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+		if (stockBuffer.isBuffered(id)) {
+			return adjustBufferedStock(id, delta, expectedVersion);
+		}
+		BeerMetadata metadata = metadataRepo.findById(id).orElse(null);
+		if (metadata == null) {
+			stockStats.recordNotFound();
+			throw new BeerNotFoundException(id);
+		}
+		BeerDTO adjustedBeerDTO = transactionTemplate.execute(status -> adjustStoredStock(metadata, delta, expectedVersion));
+		if (adjustedBeerDTO == null) {
+			rejectAdjustment(id, delta, expectedVersion);
+		}
+		return adjustedBeerDTO;
+	}
+
+	/**
+	 * The conditional update and the read-back share one transaction, so the row stays locked in
+	 * between and the returned quantity and version, which the change feed, the search index and the
+	 * ledger all receive, are this adjustment's and no other writer's. Returns null when no row matched.
+	 */
+	private BeerDTO adjustStoredStock(BeerMetadata metadata, int delta, Long expectedVersion) {
+		Long id = metadata.getId();
+		int updatedRows = expectedVersion == null
+				? beerRepo.adjustQuantity(id, delta)
+				: beerRepo.adjustQuantityAtVersion(id, delta, expectedVersion);
+		if (updatedRows == 0) {
+			return null;
+		}
+		stockStats.recordApplied();
+		BeerDTO adjustedBeerDTO = beerMap.toDTO(metadata, beerRepo.findStockStateById(id).orElseThrow());
+		publishChange(BeerChangeType.STOCK_CHANGED, adjustedBeerDTO, delta);
+		return adjustedBeerDTO;
+	}
+
+	/**
+	 * Only a rejected update reads the whole row, to tell a concurrent delete, a stale version and
+	 * exceeded bounds apart.
+	 */
+	private void rejectAdjustment(Long id, int delta, Long expectedVersion)
+			throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+		Optional<Beer> optBeer = beerRepo.findById(id);
+		if (optBeer.isEmpty()) {
+			stockStats.recordNotFound();
+			throw new BeerNotFoundException(id);
+		}
+		stockStats.recordRejected();
+		Beer beer = optBeer.get();
+		if (expectedVersion != null && !expectedVersion.equals(beer.getVersion())) {
+			throw new BeerVersionMismatchException(id, expectedVersion);
+		}
+		throw new BeerStockExceededException(id, delta, beer.getQuantity(), beer.getReserved(), beer.getAllocated(), beer.getMax());
+	}
+
+	private BeerDTO adjustBufferedStock(Long id, int delta, Long expectedVersion)
+			throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+		try {
+			BeerDTO adjustedBeerDTO = stockBuffer.adjust(id, delta, expectedVersion);
+			stockStats.recordApplied();
+			publishChange(BeerChangeType.STOCK_CHANGED, adjustedBeerDTO, delta);
+			return adjustedBeerDTO;
+		} catch (BeerNotFoundException e) {
+			stockStats.recordNotFound();
+			throw e;
+		} catch (BeerStockExceededException | BeerVersionMismatchException e) {
+			stockStats.recordRejected();
+			throw e;
+		}
+	}
+
+	private BeerStockSummaryDTO toSummary(String group, long beers, long quantity, long capacity) {
+		return BeerStockSummaryDTO.builder()
+				.group(group)
+				.beers(beers)
+				.quantity(quantity)
+				.capacity(capacity)
+				.fillRatio(capacity == 0 ? 0 : (double) quantity / capacity)
+				.build();
+	}
+
+	private void publishChange(BeerChangeType changeType, BeerDTO beerDTO, int delta) {
+		eventPublisher.publishEvent(new BeerChangedEvent(changeType, beerDTO, delta));
+	}
+
+	private BeerDTO toDTO(Beer beer) {
+		BeerDTO beerDTO = beerMap.toDTO(beer);
+		stockBuffer.overlay(beerDTO);
+		return beerDTO;
+	}
+
+	private Map<Long, Beer> lockBeers(List<StockMovementDTO> movements) {
+		List<Long> sortedIds = new ArrayList<>(new TreeSet<>(movements.stream()
+				.map(StockMovementDTO::getId)
+				.filter(id -> !stockBuffer.isBuffered(id))
+				.collect(Collectors.toList())));
+		Map<Long, Beer> beersById = new HashMap<>();
+		for (int from = 0; from < sortedIds.size(); from += MOVEMENT_LOCK_CHUNK_SIZE) {
+			List<Long> chunk = sortedIds.subList(from, Math.min(from + MOVEMENT_LOCK_CHUNK_SIZE, sortedIds.size()));
+			beerRepo.findAllByIdForUpdate(chunk).forEach(beer -> beersById.put(beer.getId(), beer));
+		}
+		return beersById;
+	}
+
+	private StockMovementResultDTO rejectBufferedMovement(StockMovementDTO movement) {
+		stockStats.recordRejected();
+		return StockMovementResultDTO.builder()
+				.id(movement.getId())
+				.delta(movement.getDelta())
+				.status(StockMovementStatus.BUFFERED)
+				.build();
+	}
+
+	/**
+	 * Flushes each applied movement before publishing it, so the STOCK_CHANGED event carries the version
+	 * and updatedAt that movement wrote, and several movements of one beer each get their own version.
+	 * {@link StockMovementStatus#BELOW_ZERO} also covers stock that would drop below the reserved and
+	 * warehouse-allocated units.
+	 */
+	private StockMovementResultDTO applyMovement(Beer beer, StockMovementDTO movement) {
+		StockMovementResultDTO result = StockMovementResultDTO.builder()
+				.id(movement.getId())
+				.delta(movement.getDelta())
+				.build();
+		if (beer == null) {
+			stockStats.recordNotFound();
+			result.setStatus(StockMovementStatus.NOT_FOUND);
+			return result;
+		}
+		int beerStockAfterMovement = beer.getQuantity() + movement.getDelta();
+		if (beerStockAfterMovement > beer.getMax()) {
+			stockStats.recordRejected();
+			result.setStatus(StockMovementStatus.EXCEEDS_MAX);
+		} else if (beerStockAfterMovement < beer.getReserved() + beer.getAllocated()) {
+			stockStats.recordRejected();
+			result.setStatus(StockMovementStatus.BELOW_ZERO);
+		} else {
+			stockStats.recordApplied();
+			beer.setQuantity(beerStockAfterMovement);
+			entityManager.flush();
+			result.setStatus(StockMovementStatus.APPLIED);
+			publishChange(BeerChangeType.STOCK_CHANGED, beerMap.toDTO(beer), movement.getDelta());
+		}
+		result.setQuantity(beer.getQuantity());
+		return result;
 	}
 
 }
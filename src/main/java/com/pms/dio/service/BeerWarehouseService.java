@@ -0,0 +1,142 @@
+package com.pms.dio.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerWarehouseStockDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerWarehouseConflictException;
+import com.pms.dio.exception.BeerWarehouseStockExceededException;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.model.BeerWarehouseStock;
+import com.pms.dio.repository.BeerMetadataRepository;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerWarehouseStockRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Stock per (beer, warehouse). A location increment or decrement changes the location row and then
+ * moves {@code Beer.quantity} and {@code Beer.allocated} together, so totals stay a single-row read.
+ * A transfer only touches the two location rows, in warehouse order so opposite transfers cannot
+ * deadlock, and leaves the beer row alone. Locks are always taken location rows first, beer row last.
+ */
+@Service
+public class BeerWarehouseService {
+
+	private static final String WAREHOUSE_TIMER = "beer.warehouses";
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerMetadataRepository metadataRepo;
+
+	@Autowired
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Autowired
+	private StockBuffer stockBuffer;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private final BeerMapper beerMap = BeerMapper.INSTANCE;
+
+	@Transactional(readOnly = true)
+	@Timed(value = WAREHOUSE_TIMER, histogram = true)
+	public List<BeerWarehouseStockDTO> listStock(Long beerId) throws BeerNotFoundException {
+		verifyIfExists(beerId);
+		return warehouseStockRepo.findByBeerIdOrderByWarehouse(beerId).stream()
+				.map(this::toDTO)
+				.collect(Collectors.toList());
+	}
+
+	@Transactional(rollbackFor = { BeerNotFoundException.class, BeerStockExceededException.class, BeerWarehouseStockExceededException.class })
+	@Timed(value = WAREHOUSE_TIMER, histogram = true)
+	public BeerWarehouseStockDTO increment(Long beerId, String warehouse, int quantity) throws BeerNotFoundException,
+			BeerStockExceededException, BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+		return adjust(beerId, warehouse, quantity);
+	}
+
+	@Transactional(rollbackFor = { BeerNotFoundException.class, BeerStockExceededException.class, BeerWarehouseStockExceededException.class })
+	@Timed(value = WAREHOUSE_TIMER, histogram = true)
+	public BeerWarehouseStockDTO decrement(Long beerId, String warehouse, int quantity) throws BeerNotFoundException,
+			BeerStockExceededException, BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+		return adjust(beerId, warehouse, -quantity);
+	}
+
+	@Transactional(rollbackFor = { BeerNotFoundException.class, BeerWarehouseStockExceededException.class })
+	@Timed(value = WAREHOUSE_TIMER, histogram = true)
+	public List<BeerWarehouseStockDTO> transfer(Long beerId, String from, String to, int quantity)
+			throws BeerNotFoundException, BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+		verifyIfNotBuffered(beerId);
+		if (from.compareTo(to) < 0) {
+			takeStock(beerId, from, quantity);
+			warehouseStockRepo.addStock(beerId, to, quantity);
+		} else {
+			warehouseStockRepo.addStock(beerId, to, quantity);
+			takeStock(beerId, from, quantity);
+		}
+		return List.of(findStock(beerId, from), findStock(beerId, to));
+	}
+
+	private BeerWarehouseStockDTO adjust(Long beerId, String warehouse, int delta) throws BeerNotFoundException,
+			BeerStockExceededException, BeerWarehouseStockExceededException, BeerWarehouseConflictException {
+		verifyIfNotBuffered(beerId);
+		BeerMetadata metadata = verifyIfExists(beerId);
+		if (delta > 0) {
+			warehouseStockRepo.addStock(beerId, warehouse, delta);
+		} else if (delta < 0) {
+			takeStock(beerId, warehouse, -delta);
+		}
+		if (beerRepo.adjustAllocated(beerId, delta) == 0) {
+			Beer beer = beerRepo.findById(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+			throw new BeerStockExceededException(beerId, delta, beer.getQuantity(), beer.getReserved(), beer.getAllocated(), beer.getMax());
+		}
+		BeerDTO adjustedBeerDTO = beerMap.toDTO(metadata, beerRepo.findStockStateById(beerId).get());
+		eventPublisher.publishEvent(new BeerChangedEvent(BeerChangeType.STOCK_CHANGED, adjustedBeerDTO, delta));
+		return findStock(beerId, warehouse);
+	}
+
+	private void takeStock(Long beerId, String warehouse, int quantity) throws BeerNotFoundException, BeerWarehouseStockExceededException {
+		if (warehouseStockRepo.takeStock(beerId, warehouse, quantity) == 0) {
+			verifyIfExists(beerId);
+			throw new BeerWarehouseStockExceededException(beerId, warehouse, -quantity, findStock(beerId, warehouse).getQuantity());
+		}
+	}
+
+	private BeerMetadata verifyIfExists(Long beerId) throws BeerNotFoundException {
+		return metadataRepo.findById(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+	}
+
+	private void verifyIfNotBuffered(Long beerId) throws BeerWarehouseConflictException {
+		if (stockBuffer.isBuffered(beerId)) {
+			throw new BeerWarehouseConflictException(beerId);
+		}
+	}
+
+	private BeerWarehouseStockDTO findStock(Long beerId, String warehouse) {
+		return warehouseStockRepo.findById(new BeerWarehouseStock.Key(beerId, warehouse))
+				.map(this::toDTO)
+				.orElseGet(() -> new BeerWarehouseStockDTO(beerId, warehouse, 0));
+	}
+
+	private BeerWarehouseStockDTO toDTO(BeerWarehouseStock stock) {
+		return BeerWarehouseStockDTO.builder()
+				.beerId(stock.getBeerId())
+				.warehouse(stock.getWarehouse())
+				.quantity(stock.getQuantity())
+				.build();
+	}
+}
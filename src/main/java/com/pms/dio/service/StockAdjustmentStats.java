@@ -0,0 +1,44 @@
+package com.pms.dio.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StockAdjustmentStats {
+
+	private final LongAdder applied = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder notFound = new LongAdder();
+
+	void recordApplied() {
+		applied.increment();
+	}
+
+	void recordRejected() {
+		rejected.increment();
+	}
+
+	void recordNotFound() {
+		notFound.increment();
+	}
+
+	public long getApplied() {
+		return applied.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getNotFound() {
+		return notFound.sum();
+	}
+
+	public Map<String, Long> snapshot() {
+		Map<String, Long> snapshot = new LinkedHashMap<>();
+		snapshot.put("applied", getApplied());
+		snapshot.put("rejected", getRejected());
+		snapshot.put("notFound", getNotFound());
+		return snapshot;
+	}
+}
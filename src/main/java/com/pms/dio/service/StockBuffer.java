@@ -0,0 +1,250 @@
+package com.pms.dio.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.pms.dio.config.StockBufferProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerVersionMismatchException;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerStockState;
+import com.pms.dio.service.StockJournal.JournalEntry;
+
+/**
+ * Write-behind stock for the beers listed in beer.stock.write-behind.beer-ids.
+ * Quantities live in memory, every accepted movement is journaled before it is
+ * applied, so a failed append leaves nothing for a retry to repeat, and the
+ * latest value of each beer is flushed to the database on a fixed delay and on
+ * shutdown, never both at once. Journal segments are deleted only once every
+ * value they hold is in the database; a row changed outside the buffer keeps
+ * them, see {@link #writeQuantities(List)}.
+ */
+@Component
+public class StockBuffer {
+
+	private static final Logger log = LoggerFactory.getLogger(StockBuffer.class);
+
+	private static final String UPDATE_QUANTITY_SQL = "update beer set quantity = ?, version = ?, updated_at = ? where id = ? and version < ?";
+
+	@Autowired
+	private StockBufferProperties properties;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final BeerMapper beerMap = BeerMapper.INSTANCE;
+
+	private final Map<Long, BufferedStock> stocks = new ConcurrentHashMap<>();
+
+	private final Set<Path> retainedSegments = new HashSet<>();
+
+	private StockJournal journal;
+
+	@PostConstruct
+	public void recover() throws IOException {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		journal = new StockJournal(properties.getJournalDir(), properties.isFsync());
+		List<Path> segments = journal.roll();
+		Collection<JournalEntry> entries = journal.replay().values();
+		if (!entries.isEmpty()) {
+			Timestamp recoveredAt = Timestamp.from(Instant.now());
+			Set<Long> unwritten = writeQuantities(entries.stream()
+					.map(entry -> new Object[] { entry.getQuantity(), entry.getVersion(), recoveredAt, entry.getBeerId(), entry.getVersion() })
+					.collect(Collectors.toList()));
+			if (!unwritten.isEmpty()) {
+				retainedSegments.addAll(segments);
+				return;
+			}
+			log.info("Recovered {} buffered stock values from {}", entries.size(), properties.getJournalDir());
+		}
+		journal.delete(segments);
+	}
+
+	public boolean isBuffered(Long id) {
+		return properties.isEnabled() && properties.getBeerIds().contains(id);
+	}
+
+	public BeerDTO adjust(Long id, int delta, Long expectedVersion)
+			throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+		BufferedStock stock = load(id);
+		int quantity;
+		long version;
+		Instant updatedAt;
+		synchronized (stock) {
+			if (expectedVersion != null && expectedVersion != stock.version) {
+				throw new BeerVersionMismatchException(id, expectedVersion);
+			}
+			quantity = stock.quantity + delta;
+			if (quantity < stock.reserved + stock.allocated || quantity > stock.beer.getMax()) {
+				throw new BeerStockExceededException(id, delta, stock.quantity, stock.reserved, stock.allocated, stock.beer.getMax());
+			}
+			version = stock.version + 1;
+			updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+			try {
+				journal.append(id, quantity, version);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			stock.quantity = quantity;
+			stock.version = version;
+			stock.updatedAt = updatedAt;
+		}
+		BeerDTO beerDTO = beerMap.toDTO(stock.beer);
+		beerDTO.setQuantity(quantity);
+		beerDTO.setVersion(version);
+		beerDTO.setUpdatedAt(updatedAt);
+		return beerDTO;
+	}
+
+	public void overlay(BeerDTO beerDTO) {
+		BufferedStock stock = stocks.get(beerDTO.getId());
+		if (stock != null) {
+			synchronized (stock) {
+				beerDTO.setQuantity(stock.quantity);
+				beerDTO.setVersion(stock.version);
+				beerDTO.setUpdatedAt(stock.updatedAt);
+			}
+		}
+	}
+
+	public void evict(Long id) {
+		stocks.remove(id);
+	}
+
+	@Scheduled(fixedDelayString = "${beer.stock.write-behind.flush-interval:PT1S}")
+	public synchronized void flush() throws IOException {
+		if (journal == null) {
+			return;
+		}
+		List<Path> flushedSegments = journal.roll();
+		List<Object[]> quantities = new ArrayList<>();
+		List<long[]> flushedVersions = new ArrayList<>();
+		for (BufferedStock stock : stocks.values()) {
+			synchronized (stock) {
+				if (stock.version > stock.flushedVersion) {
+					quantities.add(new Object[] { stock.quantity, stock.version, Timestamp.from(stock.updatedAt), stock.beer.getId(), stock.version });
+					flushedVersions.add(new long[] { stock.beer.getId(), stock.version });
+				}
+			}
+		}
+		Set<Long> unwritten = quantities.isEmpty() ? Set.of() : writeQuantities(quantities);
+		for (long[] flushed : flushedVersions) {
+			BufferedStock stock = stocks.get(flushed[0]);
+			if (stock != null && !unwritten.contains(flushed[0])) {
+				synchronized (stock) {
+					stock.flushedVersion = Math.max(stock.flushedVersion, flushed[1]);
+				}
+			}
+		}
+		if (unwritten.isEmpty()) {
+			flushedSegments.removeAll(retainedSegments);
+			journal.delete(flushedSegments);
+		}
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() throws IOException {
+		if (journal != null) {
+			flush();
+			journal.close();
+		}
+	}
+
+	/**
+	 * Writes the values and returns the beers whose row was at a newer version than the buffered one,
+	 * i.e. was changed outside the buffer. Their values stay in memory and in the journal, and every
+	 * flush logs them again, until the conflict is resolved. A row that is gone, or already holds the
+	 * buffered version because a write landed before a crash, counts as written.
+	 */
+	private Set<Long> writeQuantities(List<Object[]> quantities) {
+		int[] updatedRows = jdbcTemplate.batchUpdate(UPDATE_QUANTITY_SQL, quantities);
+		Set<Long> unwritten = new HashSet<>();
+		for (int i = 0; i < updatedRows.length; i++) {
+			if (updatedRows[i] != 0) {
+				continue;
+			}
+			Long id = (Long) quantities.get(i)[3];
+			long version = (Long) quantities.get(i)[1];
+			Optional<BeerStockState> state = beerRepo.findStockStateById(id);
+			if (state.isPresent() && state.get().getVersion() != version) {
+				log.error("Buffered stock {} of beer {} at version {} not written, the row is at version {}; keeping the journal",
+						quantities.get(i)[0], id, version, state.get().getVersion());
+				unwritten.add(id);
+			}
+		}
+		return unwritten;
+	}
+
+	private BufferedStock load(Long id) throws BeerNotFoundException {
+		BufferedStock stock = stocks.get(id);
+		if (stock == null) {
+			Beer beer = beerRepo.findById(id).orElseThrow(() -> new BeerNotFoundException(id));
+			stock = stocks.computeIfAbsent(id, key -> new BufferedStock(beer));
+		}
+		return stock;
+	}
+
+	/**
+	 * {@code reserved} and {@code allocated} are read once: reservations and warehouse movements are
+	 * refused for buffered beers, and an expiring reservation only lowers them, so the values held
+	 * here can only be stricter than the row's.
+	 */
+	private static class BufferedStock {
+
+		private final Beer beer;
+
+		private final int reserved;
+
+		private final int allocated;
+
+		private volatile int quantity;
+
+		private long version;
+
+		private long flushedVersion;
+
+		private Instant updatedAt;
+
+		BufferedStock(Beer beer) {
+			this.beer = beer;
+			this.reserved = beer.getReserved();
+			this.allocated = beer.getAllocated();
+			this.quantity = beer.getQuantity();
+			this.version = beer.getVersion();
+			this.flushedVersion = beer.getVersion();
+			this.updatedAt = beer.getUpdatedAt();
+		}
+	}
+}
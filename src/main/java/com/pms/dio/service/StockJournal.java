@@ -0,0 +1,135 @@
+package com.pms.dio.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * Append-only log of absolute stock values, split into segments. Every
+ * record carries the per-beer version that produced it, so replaying the
+ * segments in any order and keeping the highest version is idempotent.
+ */
+class StockJournal implements AutoCloseable {
+
+	static final int RECORD_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+	private static final String SEGMENT_PREFIX = "segment-";
+
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private final Path directory;
+
+	private final boolean fsync;
+
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+	private long segmentNumber;
+
+	private FileChannel segment;
+
+	StockJournal(Path directory, boolean fsync) throws IOException {
+		this.directory = directory;
+		this.fsync = fsync;
+		Files.createDirectories(directory);
+		for (Path existing : segments()) {
+			segmentNumber = Math.max(segmentNumber, segmentNumber(existing));
+		}
+	}
+
+	synchronized void append(long beerId, int quantity, long version) throws IOException {
+		if (segment == null) {
+			openNextSegment();
+		}
+		record.clear();
+		record.putLong(beerId).putInt(quantity).putLong(version).flip();
+		while (record.hasRemaining()) {
+			segment.write(record);
+		}
+		if (fsync) {
+			segment.force(false);
+		}
+	}
+
+	/**
+	 * Starts a new segment and returns the ones that were closed, which can
+	 * be deleted once their content is known to be in the database.
+	 */
+	synchronized List<Path> roll() throws IOException {
+		List<Path> closed = segments();
+		if (segment != null) {
+			segment.close();
+			segment = null;
+		}
+		return closed;
+	}
+
+	Map<Long, JournalEntry> replay() throws IOException {
+		Map<Long, JournalEntry> latest = new HashMap<>();
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+		for (Path path : segments()) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				buffer.clear();
+				while (channel.read(buffer) > 0) {
+					buffer.flip();
+					while (buffer.remaining() >= RECORD_SIZE) {
+						JournalEntry entry = new JournalEntry(buffer.getLong(), buffer.getInt(), buffer.getLong());
+						latest.merge(entry.getBeerId(), entry, (a, b) -> a.getVersion() >= b.getVersion() ? a : b);
+					}
+					buffer.compact();
+				}
+			}
+		}
+		return latest;
+	}
+
+	synchronized void delete(List<Path> segments) throws IOException {
+		for (Path path : segments) {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	synchronized List<Path> segments() throws IOException {
+		List<Path> segments = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			files.forEach(segments::add);
+		}
+		segments.sort(null);
+		return segments;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (segment != null) {
+			segment.close();
+			segment = null;
+		}
+	}
+
+	private void openNextSegment() throws IOException {
+		segmentNumber++;
+		Path path = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+		segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+	}
+
+	private static long segmentNumber(Path path) {
+		String fileName = path.getFileName().toString();
+		return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	@Value
+	static class JournalEntry {
+		long beerId;
+		int quantity;
+		long version;
+	}
+}
@@ -0,0 +1,192 @@
+package com.pms.dio.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.pms.dio.config.StockLedgerProperties;
+import com.pms.dio.dto.StockAsOfDTO;
+import com.pms.dio.dto.StockLedgerEntryDTO;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.model.StockLedgerEntry;
+import com.pms.dio.model.StockSnapshot;
+import com.pms.dio.repository.StockLedgerReplay;
+import com.pms.dio.repository.StockLedgerRepository;
+import com.pms.dio.repository.StockSnapshotRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Append-only ledger of stock changes. Each {@link BeerChangedEvent} is inserted just before the
+ * transaction that published it commits, so an entry exists exactly when its change does, even across
+ * a crash. Changes made outside a transaction, such as buffered stock, are inserted at once. Periodic
+ * snapshots fold the entries written since the previous snapshot of each beer, so stock as of a point
+ * in time, or of every beer on recovery, replays only the entries after the latest snapshot.
+ * <p>
+ * Entries are inserted by many transactions at once, so ids follow insert order, not commit order, and
+ * an entry can become visible after one with a higher id. Snapshots are therefore bounded by time: one
+ * taken at {@code takenAt} holds every entry that occurred up to it, and is only taken for a
+ * {@code takenAt} at least {@code beer.ledger.snapshot-lag} in the past, by when every entry that
+ * occurred before it has committed, since an entry is inserted right before its transaction commits.
+ */
+@Component
+public class StockLedger implements SmartInitializingSingleton {
+
+	public static final String ACTOR_HEADER = "X-Actor";
+
+	public static final int MAX_ENTRIES_PAGE_SIZE = 1000;
+
+	private static final String SYSTEM_ACTOR = "system";
+
+	private static final int MAX_ACTOR_LENGTH = 64;
+
+	private static final String INSERT_ENTRY_SQL = "insert into stock_ledger_entry (beer_id, delta, quantity, actor, occurred_at) values (?, ?, ?, ?, ?)";
+
+	private static final String SNAPSHOT_UNTRACKED_BEERS_SQL = "insert into stock_snapshot (beer_id, quantity, last_entry_id, taken_at) "
+			+ "select b.id, b.quantity, 0, current_timestamp from beer b "
+			+ "where not exists (select 1 from stock_snapshot s where s.beer_id = b.id) "
+			+ "and not exists (select 1 from stock_ledger_entry e where e.beer_id = b.id)";
+
+	private static final String SNAPSHOT_SQL = "insert into stock_snapshot (beer_id, quantity, last_entry_id, taken_at) "
+			+ "select e.beer_id, coalesce((select s.quantity from stock_snapshot s where s.beer_id = e.beer_id "
+			+ "order by s.taken_at desc, s.id desc limit 1), 0) + sum(e.delta), max(e.id), ? "
+			+ "from stock_ledger_entry e "
+			+ "where e.occurred_at > coalesce((select max(s.taken_at) from stock_snapshot s where s.beer_id = e.beer_id), "
+			+ "timestamp '1970-01-01 00:00:00') and e.occurred_at <= ? "
+			+ "group by e.beer_id";
+
+	private static final String LATEST_SNAPSHOTS_SQL = "select s.beer_id, s.quantity from stock_snapshot s "
+			+ "where s.id = (select l.id from stock_snapshot l where l.beer_id = s.beer_id order by l.taken_at desc, l.id desc limit 1)";
+
+	private static final String ENTRIES_SINCE_SNAPSHOT_SQL = "select e.beer_id, sum(e.delta), count(*) from stock_ledger_entry e "
+			+ "where e.occurred_at > coalesce((select max(s.taken_at) from stock_snapshot s where s.beer_id = e.beer_id), "
+			+ "timestamp '1970-01-01 00:00:00') "
+			+ "group by e.beer_id";
+
+	@Autowired
+	private StockLedgerRepository ledgerRepo;
+
+	@Autowired
+	private StockSnapshotRepository snapshotRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private StockLedgerProperties properties;
+
+	/**
+	 * Beers that predate the ledger get a baseline snapshot of their current quantity.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		jdbcTemplate.update(SNAPSHOT_UNTRACKED_BEERS_SQL);
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onBeerChanged(BeerChangedEvent event) {
+		int quantity = event.getBeer().getQuantity();
+		int delta;
+		switch (event.getChangeType()) {
+		case CREATED:
+			delta = quantity;
+			break;
+		case DELETED:
+			delta = -quantity;
+			quantity = 0;
+			break;
+		default:
+			delta = event.getDelta();
+		}
+		jdbcTemplate.update(INSERT_ENTRY_SQL, event.getBeer().getId(), delta, quantity, currentActor(),
+				Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+	}
+
+	@Scheduled(fixedDelayString = "${beer.ledger.snapshot-interval:PT5M}", initialDelayString = "${beer.ledger.snapshot-interval:PT5M}")
+	public synchronized int snapshot() {
+		Timestamp takenAt = Timestamp.from(Instant.now().minus(properties.getSnapshotLag()).truncatedTo(ChronoUnit.MILLIS));
+		return jdbcTemplate.update(SNAPSHOT_SQL, takenAt, takenAt);
+	}
+
+	@Timed(value = "beer.ledger", histogram = true)
+	public List<StockLedgerEntryDTO> entries(Long beerId, long afterId, int limit) {
+		int pageSize = Math.min(Math.max(limit, 1), MAX_ENTRIES_PAGE_SIZE);
+		return ledgerRepo.findByBeerIdAndIdGreaterThanOrderById(beerId, afterId, PageRequest.of(0, pageSize)).stream()
+				.map(this::toDTO)
+				.collect(Collectors.toList());
+	}
+
+	@Timed(value = "beer.ledger", histogram = true)
+	public StockAsOfDTO stockAsOf(Long beerId, Instant asOf) throws BeerNotFoundException {
+		Optional<StockSnapshot> snapshot = snapshotRepo.findFirstByBeerIdAndTakenAtLessThanEqualOrderByTakenAtDescIdDesc(beerId, asOf);
+		StockLedgerReplay replay = ledgerRepo.replay(beerId, snapshot.map(StockSnapshot::getTakenAt).orElse(Instant.EPOCH), asOf);
+		if (snapshot.isEmpty() && replay.getEntries() == 0) {
+			throw new BeerNotFoundException(beerId);
+		}
+		return StockAsOfDTO.builder()
+				.beerId(beerId)
+				.asOf(asOf)
+				.quantity(snapshot.map(StockSnapshot::getQuantity).orElse(0) + replay.getDelta().intValue())
+				.snapshotTakenAt(snapshot.map(StockSnapshot::getTakenAt).orElse(null))
+				.replayedEntries(replay.getEntries())
+				.build();
+	}
+
+	/**
+	 * Current quantity of every beer the ledger knows, rebuilt from the latest snapshots and the entries
+	 * written after them. Deleted beers come back with quantity 0.
+	 */
+	public Map<Long, Integer> replay() {
+		Map<Long, Integer> quantities = new HashMap<>();
+		jdbcTemplate.query(LATEST_SNAPSHOTS_SQL, row -> {
+			quantities.put(row.getLong(1), row.getInt(2));
+		});
+		jdbcTemplate.query(ENTRIES_SINCE_SNAPSHOT_SQL, row -> {
+			quantities.merge(row.getLong(1), row.getInt(2), Integer::sum);
+		});
+		return quantities;
+	}
+
+	private static String currentActor() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return SYSTEM_ACTOR;
+		}
+		HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+		String actor = request.getHeader(ACTOR_HEADER);
+		if (actor == null || actor.isBlank()) {
+			return request.getRemoteUser() == null ? SYSTEM_ACTOR : request.getRemoteUser();
+		}
+		return actor.length() > MAX_ACTOR_LENGTH ? actor.substring(0, MAX_ACTOR_LENGTH) : actor;
+	}
+
+	private StockLedgerEntryDTO toDTO(StockLedgerEntry entry) {
+		return StockLedgerEntryDTO.builder()
+				.id(entry.getId())
+				.beerId(entry.getBeerId())
+				.delta(entry.getDelta())
+				.quantity(entry.getQuantity())
+				.actor(entry.getActor())
+				.occurredAt(entry.getOccurredAt())
+				.build();
+	}
+}
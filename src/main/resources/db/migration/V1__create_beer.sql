@@ -0,0 +1,16 @@
+create sequence beer_sequence start with 1 increment by 50;
+
+create table beer (
+    id bigint not null,
+    name varchar(255) not null,
+    brand varchar(255) not null,
+    max integer not null,
+    quantity integer not null,
+    type varchar(255) not null,
+    version bigint not null,
+    updated_at timestamp not null,
+    primary key (id),
+    constraint uk_beer_name unique (name)
+);
+
+create index idx_beer_brand_id on beer (brand, id);
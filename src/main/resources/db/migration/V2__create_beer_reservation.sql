@@ -0,0 +1,11 @@
+alter table beer add column reserved integer default 0 not null;
+
+create sequence beer_reservation_sequence start with 1 increment by 50;
+
+create table beer_reservation (
+    id bigint not null,
+    beer_id bigint not null,
+    quantity integer not null,
+    expires_at timestamp not null,
+    primary key (id)
+);
@@ -0,0 +1,10 @@
+alter table beer add column allocated integer default 0 not null;
+
+create table beer_warehouse_stock (
+    beer_id bigint not null,
+    warehouse varchar(64) not null,
+    quantity integer not null,
+    primary key (beer_id, warehouse)
+);
+
+create index idx_beer_warehouse_stock_warehouse on beer_warehouse_stock (warehouse, beer_id);
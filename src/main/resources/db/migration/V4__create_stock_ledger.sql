@@ -0,0 +1,22 @@
+create table stock_ledger_entry (
+    id bigint generated by default as identity,
+    beer_id bigint not null,
+    delta integer not null,
+    quantity integer not null,
+    actor varchar(64) not null,
+    occurred_at timestamp not null,
+    primary key (id)
+);
+
+create index idx_stock_ledger_entry_beer_id on stock_ledger_entry (beer_id, id);
+
+create table stock_snapshot (
+    id bigint generated by default as identity,
+    beer_id bigint not null,
+    quantity integer not null,
+    last_entry_id bigint not null,
+    taken_at timestamp not null,
+    primary key (id)
+);
+
+create index idx_stock_snapshot_beer_id on stock_snapshot (beer_id, taken_at);
@@ -0,0 +1 @@
+create index idx_stock_ledger_entry_beer_id_occurred_at on stock_ledger_entry (beer_id, occurred_at);
@@ -1,5 +1,7 @@
 package com.pms.dio.builder;
 
+import java.time.Instant;
+
 import com.pms.dio.dto.BeerDTO;
 import com.pms.dio.enums.BeerType;
 
@@ -26,12 +28,18 @@ public class BeerDTOBuilder {
     @Builder.Default
     private BeerType type = BeerType.LAGER;
 
+    private Long version;
+
+    private Instant updatedAt;
+
     public BeerDTO toBeerDTO() {
         return new BeerDTO(id,
                 name,
                 brand,
                 max,
                 quantity,
-                type);
+                type,
+                version,
+                updatedAt);
     }
 }
\ No newline at end of file
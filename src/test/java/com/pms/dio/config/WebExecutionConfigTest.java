@@ -0,0 +1,60 @@
+package com.pms.dio.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Executor;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Test;
+
+import com.pms.dio.enums.WebExecutionMode;
+
+public class WebExecutionConfigTest {
+
+	private final WebExecutionConfig webExecutionConfig = new WebExecutionConfig();
+
+	@Test
+	void whenExecutionModeIsPlatformThenTomcatKeepsItsWorkerPool() {
+		ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+
+		webExecutionConfig.executionModeCustomizer(propertiesFor(WebExecutionMode.PLATFORM)).customize(protocolHandler);
+
+		verify(protocolHandler, never()).setExecutor(any(Executor.class));
+	}
+
+	@Test
+	void whenExecutionModeIsVirtualOnJava21ThenTomcatUsesVirtualThreads() {
+		assumeTrue(Runtime.version().feature() >= 21);
+		ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+
+		webExecutionConfig.executionModeCustomizer(propertiesFor(WebExecutionMode.VIRTUAL)).customize(protocolHandler);
+
+		verify(protocolHandler).setExecutor(any(Executor.class));
+	}
+
+	@Test
+	void whenExecutionModeIsVirtualBeforeJava21ThenStartupFails() {
+		assumeTrue(Runtime.version().feature() < 21);
+
+		IllegalStateException exception = assertThrows(IllegalStateException.class,
+				() -> webExecutionConfig.executionModeCustomizer(propertiesFor(WebExecutionMode.VIRTUAL)));
+
+		assertThat(exception.getMessage(), is(notNullValue()));
+		assertThat(exception.getMessage(), containsString("Java 21"));
+	}
+
+	private WebExecutionProperties propertiesFor(WebExecutionMode executionMode) {
+		WebExecutionProperties properties = new WebExecutionProperties();
+		properties.setExecutionMode(executionMode);
+		return properties;
+	}
+}
@@ -0,0 +1,87 @@
+package com.pms.dio.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pms.dio.config.RateLimitProperties.Concurrency;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+
+	private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+	private Concurrency concurrency;
+
+	@BeforeEach
+	void setUp() {
+		concurrency = new Concurrency();
+		concurrency.setInitialLimit(4);
+		concurrency.setMinLimit(1);
+		concurrency.setMaxLimit(6);
+		concurrency.setLatencyThreshold(Duration.ofMillis(250));
+		concurrency.setBackoffRatio(0.5);
+	}
+
+	@Test
+	void whenLimitIsReachedThenFurtherRequestsAreRefused() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrency);
+
+		for (int i = 0; i < 4; i++) {
+			assertThat(limiter.tryAcquire(), is(true));
+		}
+
+		assertThat(limiter.tryAcquire(), is(false));
+		assertThat(limiter.getInFlight(), is(equalTo(4)));
+	}
+
+	@Test
+	void whenRequestsAreSlowOrFailThenLimitBacksOffToTheMinimum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrency);
+
+		limiter.tryAcquire();
+		limiter.release(SLOW, false);
+		assertThat(limiter.getLimit(), is(equalTo(2)));
+
+		limiter.tryAcquire();
+		limiter.release(FAST, true);
+		assertThat(limiter.getLimit(), is(equalTo(1)));
+
+		limiter.tryAcquire();
+		limiter.release(SLOW, false);
+		assertThat(limiter.getLimit(), is(equalTo(1)));
+	}
+
+	@Test
+	void whenBusyRequestsAreFastThenLimitGrowsUpToTheMaximum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrency);
+
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				limiter.tryAcquire();
+			}
+			for (int j = 0; j < 3; j++) {
+				limiter.release(FAST, false);
+			}
+		}
+
+		assertThat(limiter.getLimit(), is(equalTo(6)));
+		assertThat(limiter.getInFlight(), is(equalTo(0)));
+	}
+
+	@Test
+	void whenLimitIsBarelyUsedThenItDoesNotGrow() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrency);
+
+		limiter.tryAcquire();
+		limiter.release(FAST, false);
+
+		assertThat(limiter.getLimit(), is(equalTo(4)));
+	}
+}
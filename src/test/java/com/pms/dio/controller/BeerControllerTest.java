@@ -1,15 +1,22 @@
 package com.pms.dio.controller;
 
 import static com.pms.dio.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,18 +25,54 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.dto.BeerChangeDTO;
 import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerImportDTO;
+import com.pms.dio.dto.BeerImportResultDTO;
+import com.pms.dio.dto.BeerPageDTO;
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.dto.BeerReservationRequestDTO;
+import com.pms.dio.dto.BeerSearchCriteriaDTO;
+import com.pms.dio.dto.BeerSearchResultDTO;
+import com.pms.dio.dto.BeerStockSummaryDTO;
+import com.pms.dio.dto.BeerWarehouseStockDTO;
+import com.pms.dio.dto.BeerWarehouseTransferDTO;
 import com.pms.dio.dto.QuantityDTO;
+import com.pms.dio.dto.StockAsOfDTO;
+import com.pms.dio.dto.StockLedgerEntryDTO;
+import com.pms.dio.dto.StockMovementBatchDTO;
+import com.pms.dio.dto.StockMovementDTO;
+import com.pms.dio.dto.StockMovementResultDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.enums.BeerErrorCode;
+import com.pms.dio.enums.BeerExportFormat;
+import com.pms.dio.enums.BeerSort;
+import com.pms.dio.enums.StockMovementStatus;
+import com.pms.dio.exception.BeerChangesExpiredException;
 import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerReservationConflictException;
+import com.pms.dio.exception.BeerReservationNotFoundException;
 import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerVersionMismatchException;
+import com.pms.dio.exception.BeerWarehouseStockExceededException;
+import com.pms.dio.exception.InvalidCursorException;
+import com.pms.dio.service.BeerChangeFeed;
+import com.pms.dio.service.BeerReservationService;
+import com.pms.dio.service.BeerSearchIndex;
 import com.pms.dio.service.BeerService;
+import com.pms.dio.service.BeerWarehouseService;
+import com.pms.dio.service.StockLedger;
 
 @ExtendWith(MockitoExtension.class)
 public class BeerControllerTest {
@@ -39,19 +82,37 @@ public class BeerControllerTest {
     private static final long INVALID_BEER_ID = 2l;
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
+    private static final String BEER_API_STOCK_MOVEMENTS_URL = "/stock-movements";
     
     private MockMvc mockMvc;
     
     @Mock
     private BeerService beerServ;
+
+    @Mock
+    private BeerReservationService beerReservationService;
+
+    @Mock
+    private BeerWarehouseService beerWarehouseService;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private BeerSearchIndex beerSearchIndex;
+
+    @Mock
+    private BeerChangeFeed beerChangeFeed;
     
     @InjectMocks
     private BeerController beerController;
     
     @BeforeEach
     void setUp() {
+    	ReflectionTestUtils.setField(beerController, "objectMapper", new ObjectMapper());
     	mockMvc = MockMvcBuilders.standaloneSetup(beerController)
     			.setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+    			.setControllerAdvice(new BeerExceptionHandler())
     			.setViewResolvers((s, locale)-> new MappingJackson2JsonView())
     			.build();
     }
@@ -87,6 +148,41 @@ public class BeerControllerTest {
     		.content(asJsonString(beerDTO)))
     		.andExpect(status().isBadRequest());
     }
+    //Testando POST - Bulk import
+    @Test
+    void whenPOSTIsCalledWithManyBeersThenTheyAreImported() throws Exception {
+    	//given
+    	BeerImportDTO beerImportDTO = BeerImportDTO.builder()
+    			.beers(Collections.singletonList(BeerDTOBuilder.builder().build().toBeerDTO()))
+    			.build();
+
+    	//when
+    	when(beerServ.importBeers(beerImportDTO.getBeers())).thenReturn(new BeerImportResultDTO(1));
+
+    	//then
+    	mockMvc.perform(post(BEER_API_URL_PATH + "/bulk")
+    		.contentType(MediaType.APPLICATION_JSON)
+    		.content(asJsonString(beerImportDTO)))
+    		.andExpect(status().isCreated())
+    		.andExpect(jsonPath("$.imported", is(1)));
+    }
+
+    @Test
+    void whenPOSTIsCalledWithManyBeersMissingRequiredFieldThenAnErrorIsReturned() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+    	beerDTO.setName(null);
+    	BeerImportDTO beerImportDTO = BeerImportDTO.builder()
+    			.beers(Collections.singletonList(beerDTO))
+    			.build();
+
+    	//then
+    	mockMvc.perform(post(BEER_API_URL_PATH + "/bulk")
+    		.contentType(MediaType.APPLICATION_JSON)
+    		.content(asJsonString(beerImportDTO)))
+    		.andExpect(status().isBadRequest());
+    }
+
     //Testando GET - Find By Name
     @Test
     void wheGETIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
@@ -106,6 +202,75 @@ public class BeerControllerTest {
     	
     }
     
+    @Test
+    void wheGETIsCalledWithCurrentETagThenNotModifiedStatusIsReturned() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().version(3L).updatedAt(Instant.parse("2026-01-01T10:00:00Z")).build().toBeerDTO();
+
+    	//when
+    	when(beerServ.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName()))
+    			.andExpect(status().isOk())
+    			.andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+    			.andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Thu, 01 Jan 2026 10:00:00 GMT"));
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+    			.header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+    			.andExpect(status().isNotModified())
+    			.andExpect(content().string(""));
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+    			.header(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 2026 10:00:00 GMT"))
+    			.andExpect(status().isNotModified());
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+    			.header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+    			.andExpect(status().isOk());
+    }
+
+    @Test
+    void whenGETIsCalledAcceptingCborThenETagNamesTheFormat() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().version(3L).build().toBeerDTO();
+
+    	//when
+    	when(beerServ.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+    			.accept(MediaType.APPLICATION_CBOR))
+    			.andExpect(status().isOk())
+    			.andExpect(header().string(HttpHeaders.ETAG, "\"1-3-cbor\""));
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+    			.accept(MediaType.APPLICATION_CBOR)
+    			.header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+    			.andExpect(status().isOk());
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+    			.header(HttpHeaders.IF_NONE_MATCH, "\"1-3-cbor\""))
+    			.andExpect(status().isOk());
+    }
+
+    @Test
+    void whenGETListIsCalledThenPageETagIsWeak() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().version(3L).build().toBeerDTO();
+
+    	//when
+    	when(beerServ.listPage(null, 100, BeerSort.ID)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), null));
+
+    	//then
+    	String eTag = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH))
+    			.andExpect(status().isOk())
+    			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    	assertThat(eTag.startsWith("W/\""), is(true));
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+    			.header(HttpHeaders.IF_NONE_MATCH, eTag))
+    			.andExpect(status().isNotModified());
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+    			.accept(MediaType.APPLICATION_CBOR)
+    			.header(HttpHeaders.IF_NONE_MATCH, eTag))
+    			.andExpect(status().isOk());
+    }
+
     //Testando Exceção - Find By Name
     @Test
     void wheGETIsCalledWithoutRegisteredNameTheNotFoundIsReturned() throws Exception {
@@ -128,12 +293,13 @@ public class BeerControllerTest {
     	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
     	
     	//when
-    	when(beerServ.listAll()).thenReturn(Collections.singletonList(beerDTO));
+    	when(beerServ.listPage(null, 100, BeerSort.ID)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), null));
     	
     	//then
     	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
     			.contentType(MediaType.APPLICATION_JSON))
     			.andExpect(status().isOk())
+    			.andExpect(header().doesNotExist("X-Next-Cursor"))
     			.andExpect(jsonPath("$[0].name", is(beerDTO.getName())))
         		.andExpect(jsonPath("$[0].brand", is(beerDTO.getBrand())))
         		.andExpect(jsonPath("$[0].type", is(beerDTO.getType().toString())));
@@ -141,12 +307,28 @@ public class BeerControllerTest {
     }
     
     @Test
-    void wheGETListWithoutBeersIsCalledTheOkStatusIsReturned() throws Exception {
+    void wheGETListIsCalledAcceptingCborThenBeersAreReturnedAsCbor() throws Exception {
     	//given
     	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-    	
+
     	//when
-    	when(beerServ.listAll()).thenReturn(Collections.singletonList(beerDTO));
+    	when(beerServ.listPage(null, 100, BeerSort.ID)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), null));
+
+    	//then
+    	byte[] body = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+    			.accept(MediaType.APPLICATION_CBOR))
+    			.andExpect(status().isOk())
+    			.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+    			.andReturn().getResponse().getContentAsByteArray();
+    	BeerDTO[] beers = new ObjectMapper(new CBORFactory()).readValue(body, BeerDTO[].class);
+    	assertThat(beers[0].getName(), is(beerDTO.getName()));
+    	assertThat(beers[0].getQuantity(), is(beerDTO.getQuantity()));
+    }
+
+    @Test
+    void wheGETListWithoutBeersIsCalledTheOkStatusIsReturned() throws Exception {
+    	//when
+    	when(beerServ.listPage(null, 100, BeerSort.ID)).thenReturn(new BeerPageDTO(Collections.emptyList(), null));
     	
     	//then
     	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
@@ -154,6 +336,194 @@ public class BeerControllerTest {
     			.andExpect(status().isOk());
     	
     }
+
+    @Test
+    void wheGETListWithMoreBeersIsCalledTheNextCursorIsReturned() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+    	//when
+    	when(beerServ.listPage("cursor", 1, BeerSort.NAME)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), "next"));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+    			.param("cursor", "cursor")
+    			.param("size", "1")
+    			.param("sort", "NAME")
+    			.contentType(MediaType.APPLICATION_JSON))
+    			.andExpect(status().isOk())
+    			.andExpect(header().string("X-Next-Cursor", "next"))
+    			.andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void wheGETListIsCalledWithInvalidCursorTheBadRequestStatusIsReturned() throws Exception {
+    	//when
+    	when(beerServ.listPage("invalid", 100, BeerSort.ID)).thenThrow(InvalidCursorException.class);
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+    			.param("cursor", "invalid")
+    			.contentType(MediaType.APPLICATION_JSON))
+    			.andExpect(status().isBadRequest());
+    }
+    //Teste GET - Search
+    @Test
+    void whenGETSearchIsCalledThenMatchingBeersAndFacetsAreReturned() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+    	BeerSearchResultDTO searchResult = BeerSearchResultDTO.builder()
+    			.total(1)
+    			.beers(Collections.singletonList(beerDTO))
+    			.types(Collections.singletonMap(beerDTO.getType(), 1L))
+    			.brands(Collections.singletonMap(beerDTO.getBrand(), 1L))
+    			.build();
+
+    	//when
+    	when(beerSearchIndex.search(new BeerSearchCriteriaDTO("bra", beerDTO.getType(), null, null, 0.5, 20))).thenReturn(searchResult);
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/search")
+    			.param("q", "bra")
+    			.param("type", beerDTO.getType().name())
+    			.param("maxFillRatio", "0.5"))
+    			.andExpect(status().isOk())
+    			.andExpect(jsonPath("$.total", is(1)))
+    			.andExpect(jsonPath("$.beers[0].name", is(beerDTO.getName())))
+    			.andExpect(jsonPath("$.types.LAGER", is(1)))
+    			.andExpect(jsonPath("$.brands.Ambev", is(1)));
+    }
+
+    @Test
+    void whenGETSearchIsCalledWithInvalidFillRatioThenBadRequestStatusIsReturned() throws Exception {
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/search").param("maxFillRatio", "2"))
+    			.andExpect(status().isBadRequest());
+    }
+    //Teste GET - Stats
+    @Test
+    void whenGETStatsTypesIsCalledThenStockSummaryPerTypeIsReturned() throws Exception {
+    	//given
+    	BeerStockSummaryDTO summary = BeerStockSummaryDTO.builder().group("LAGER").beers(2).quantity(30).capacity(100).fillRatio(0.3).build();
+
+    	//when
+    	when(beerServ.stockByType()).thenReturn(Collections.singletonList(summary));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/stats/types"))
+    			.andExpect(status().isOk())
+    			.andExpect(jsonPath("$[0].group", is("LAGER")))
+    			.andExpect(jsonPath("$[0].quantity", is(30)))
+    			.andExpect(jsonPath("$[0].fillRatio", is(0.3)));
+    }
+
+    @Test
+    void whenGETStatsLowStockIsCalledThenLowStockBeersAreReturned() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+    	//when
+    	when(beerServ.findLowStock(0.1, 100)).thenReturn(Collections.singletonList(beerDTO));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/stats/low-stock").param("maxFillRatio", "0.1"))
+    			.andExpect(status().isOk())
+    			.andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+    //Teste GET - Changes
+    @Test
+    void whenGETChangesIsCalledThenChangesAfterSequenceAreReturned() throws Exception {
+    	//given
+    	BeerChangeDTO change = BeerChangeDTO.builder()
+    			.sequence(8)
+    			.type(BeerChangeType.STOCK_CHANGED)
+    			.delta(-2)
+    			.beer(BeerDTOBuilder.builder().build().toBeerDTO())
+    			.build();
+
+    	//when
+    	when(beerChangeFeed.changesSince(7, 500)).thenReturn(Collections.singletonList(change));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/changes").param("since", "7"))
+    			.andExpect(status().isOk())
+    			.andExpect(jsonPath("$[0].sequence", is(8)))
+    			.andExpect(jsonPath("$[0].type", is("STOCK_CHANGED")))
+    			.andExpect(jsonPath("$[0].beer.name", is("Brahma")));
+    }
+
+    @Test
+    void whenGETChangesIsCalledWithExpiredSequenceThenGoneStatusIsReturned() throws Exception {
+    	//when
+    	when(beerChangeFeed.changesSince(0, 500)).thenThrow(BeerChangesExpiredException.class);
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/changes"))
+    			.andExpect(status().isGone());
+    }
+    //Teste GET - Export
+    @Test
+    void whenGETByNameIsCalledWithANameShadowedByAFixedPathThenBeerIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("export").build().toBeerDTO();
+        when(beerServ.findByName("export")).thenReturn(beerDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/by-name/export"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("export")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenGETExportIsCalledThenBeersAreStreamedAsNdjson() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+    	doAnswer(invocation -> {
+    		Consumer<BeerDTO> consumer = invocation.getArgument(0);
+    		consumer.accept(beerDTO);
+    		consumer.accept(beerDTO);
+    		return null;
+    	}).when(beerServ).exportAll(any(Consumer.class));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/export"))
+    			.andExpect(status().isOk())
+    			.andExpect(header().string("Content-Type", BeerExportFormat.NDJSON.getContentType() + ";charset=UTF-8"))
+    			.andExpect(content().string(asJsonString(beerDTO) + "\n" + asJsonString(beerDTO) + "\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenGETExportIsCalledWithCsvFormatThenBeersAreStreamedAsCsv() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().brand("Ambev, \"SA\"").build().toBeerDTO();
+    	doAnswer(invocation -> {
+    		Consumer<BeerDTO> consumer = invocation.getArgument(0);
+    		consumer.accept(beerDTO);
+    		return null;
+    	}).when(beerServ).exportAll(any(Consumer.class));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/export").param("format", "CSV"))
+    			.andExpect(status().isOk())
+    			.andExpect(content().string("id,name,brand,max,quantity,type\n1,Brahma,\"Ambev, \"\"SA\"\"\",50,10,LAGER\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenGETExportIsCalledWithCsvFormatThenCarriageReturnsAreQuoted() throws Exception {
+    	//given
+    	BeerDTO beerDTO = BeerDTOBuilder.builder().brand("Ambev\rSA").build().toBeerDTO();
+    	doAnswer(invocation -> {
+    		Consumer<BeerDTO> consumer = invocation.getArgument(0);
+    		consumer.accept(beerDTO);
+    		return null;
+    	}).when(beerServ).exportAll(any(Consumer.class));
+
+    	//then
+    	mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/export").param("format", "CSV"))
+    			.andExpect(status().isOk())
+    			.andExpect(content().string("id,name,brand,max,quantity,type\n1,Brahma,\"Ambev\rSA\",50,10,LAGER\n"));
+    }
+
     //Teste metodo Delete
     @Test
     void whenDELETEIsCalledWithValidIdThenNoContentStatusIsReturned() throws Exception {
@@ -195,6 +565,49 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
     }
 
+    @Test
+    void whenPATCHIsCalledWithIfMatchThenIncrementIsConditionalOnVersion() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        BeerDTO beerDTO = BeerDTOBuilder.builder().version(4L).build().toBeerDTO();
+
+        when(beerServ.increment(VALID_BEER_ID, quantityDTO.getQuantity(), 3L)).thenReturn(beerDTO);
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""));
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                .header(HttpHeaders.IF_MATCH, "\"1-3-cbor\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenPATCHIsCalledWithStaleIfMatchThenPreconditionFailedStatusIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        when(beerServ.decrement(VALID_BEER_ID, quantityDTO.getQuantity(), 3L)).thenThrow(BeerVersionMismatchException.class);
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+                .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+                .header(HttpHeaders.IF_MATCH, "W/\"1-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void whenPATCHIsCalledToIncrementGreatherThanMaxThenBadRequestStatusIsReturned() throws Exception {
         QuantityDTO quantityDTO = QuantityDTO.builder()
@@ -253,11 +666,18 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
 
-        when(beerServ.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
+        when(beerServ.decrement(VALID_BEER_ID, quantityDTO.getQuantity()))
+                .thenThrow(new BeerStockExceededException(VALID_BEER_ID, -quantityDTO.getQuantity(), 10, 5, 0, 50));
 
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(asJsonString(quantityDTO))).andExpect(status().isBadRequest());
+                .content(asJsonString(quantityDTO))).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(BeerErrorCode.STOCK_BELOW_ZERO.toString())))
+                .andExpect(jsonPath("$.id", is((int) VALID_BEER_ID)))
+                .andExpect(jsonPath("$.requestedDelta", is(-60)))
+                .andExpect(jsonPath("$.quantity", is(10)))
+                .andExpect(jsonPath("$.reserved", is(5)))
+                .andExpect(jsonPath("$.max", is(50)));
     }
 
     @Test
@@ -266,12 +686,162 @@ public class BeerControllerTest {
                 .quantity(5)
                 .build();
 
-        when(beerServ.decrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
+        when(beerServ.decrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(new BeerNotFoundException(INVALID_BEER_ID));
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code", is(BeerErrorCode.BEER_NOT_FOUND.toString())))
+                .andExpect(jsonPath("$.id", is((int) INVALID_BEER_ID)))
+                .andExpect(jsonPath("$.quantity").doesNotExist());
+    }
+
+    @Test
+    void whenPOSTReservationIsCalledThenUnitsAreHeld() throws Exception {
+        BeerReservationRequestDTO reservationRequestDTO = BeerReservationRequestDTO.builder()
+                .quantity(3)
+                .ttl(Duration.ofMinutes(5))
+                .build();
+        BeerReservationDTO reservationDTO = new BeerReservationDTO(7L, VALID_BEER_ID, 3, Instant.parse("2026-01-01T10:05:00Z"));
+
+        when(beerReservationService.reserve(VALID_BEER_ID, 3, Duration.ofMinutes(5))).thenReturn(reservationDTO);
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\":3,\"ttl\":\"PT5M\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(7)))
+                .andExpect(jsonPath("$.quantity", is(3)));
+    }
+
+    @Test
+    void whenPOSTReservationIsCalledForBufferedBeerThenConflictStatusIsReturned() throws Exception {
+        when(beerReservationService.reserve(VALID_BEER_ID, 3, null)).thenThrow(BeerReservationConflictException.class);
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(BeerReservationRequestDTO.builder().quantity(3).build())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenPOSTConfirmIsCalledThenDecrementedBeerIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(7).version(4L).build().toBeerDTO();
+
+        when(beerReservationService.confirm(7L)).thenReturn(beerDTO);
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/reservations/7/confirm"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(jsonPath("$.quantity", is(7)));
+    }
+
+    @Test
+    void whenDELETEReservationIsCalledForSettledReservationThenNotFoundStatusIsReturned() throws Exception {
+        doThrow(BeerReservationNotFoundException.class).when(beerReservationService).release(7L);
+
+        mockMvc.perform(delete(BEER_API_URL_PATH + "/reservations/7"))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void whenGETLedgerIsCalledThenEntriesAfterTheGivenIdAreReturned() throws Exception {
+        StockLedgerEntryDTO entryDTO = new StockLedgerEntryDTO(8L, VALID_BEER_ID, -2, 8, "alice", Instant.parse("2026-01-01T10:00:00Z"));
+
+        when(stockLedger.entries(VALID_BEER_ID, 7L, 100)).thenReturn(Collections.singletonList(entryDTO));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/ledger")
+                .param("after", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].delta", is(-2)))
+                .andExpect(jsonPath("$[0].actor", is("alice")));
+    }
+
+    @Test
+    void whenGETStockIsCalledWithAsOfThenStockAtThatTimeIsReturned() throws Exception {
+        Instant asOf = Instant.parse("2026-01-01T10:00:00Z");
+        StockAsOfDTO stockAsOfDTO = StockAsOfDTO.builder().beerId(VALID_BEER_ID).asOf(asOf).quantity(12).replayedEntries(3).build();
+
+        when(stockLedger.stockAsOf(VALID_BEER_ID, asOf)).thenReturn(stockAsOfDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/stock")
+                .param("asOf", "2026-01-01T10:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(12)))
+                .andExpect(jsonPath("$.replayedEntries", is(3)));
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementWarehouseBelowZeroThenBadRequestStatusIsReturned() throws Exception {
+        when(beerWarehouseService.decrement(VALID_BEER_ID, "north", 5))
+                .thenThrow(new BeerWarehouseStockExceededException(VALID_BEER_ID, "north", -5, 3));
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/warehouses/north" + BEER_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(QuantityDTO.builder().quantity(5).build())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(BeerErrorCode.STOCK_BELOW_ZERO.toString())))
+                .andExpect(jsonPath("$.warehouse", is("north")))
+                .andExpect(jsonPath("$.quantity", is(3)));
+    }
+
+    @Test
+    void whenPOSTIsCalledToTransferBetweenWarehousesThenBothLocationsAreReturned() throws Exception {
+        BeerWarehouseTransferDTO transferDTO = BeerWarehouseTransferDTO.builder().from("north").to("south").quantity(4).build();
+
+        when(beerWarehouseService.transfer(VALID_BEER_ID, "north", "south", 4)).thenReturn(List.of(
+                new BeerWarehouseStockDTO(VALID_BEER_ID, "north", 6),
+                new BeerWarehouseStockDTO(VALID_BEER_ID, "south", 4)));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/warehouses/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(transferDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantity", is(6)))
+                .andExpect(jsonPath("$[1].warehouse", is("south")));
+    }
+
+    @Test
+    void whenPOSTIsCalledToTransferToTheSameWarehouseThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/warehouses/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(BeerWarehouseTransferDTO.builder().from("north").to("north").quantity(4).build())))
+                .andExpect(status().isBadRequest());
 
+        verifyNoInteractions(beerWarehouseService);
+    }
+
+    @Test
+    void whenPOSTIsCalledWithStockMovementsThenResultsAreReturned() throws Exception {
+        StockMovementBatchDTO batchDTO = StockMovementBatchDTO.builder()
+                .movements(Collections.singletonList(StockMovementDTO.builder().id(VALID_BEER_ID).delta(5).build()))
+                .build();
+        StockMovementResultDTO resultDTO = StockMovementResultDTO.builder()
+                .id(VALID_BEER_ID)
+                .delta(5)
+                .status(StockMovementStatus.APPLIED)
+                .quantity(15)
+                .build();
+
+        when(beerServ.applyMovements(batchDTO.getMovements())).thenReturn(Collections.singletonList(resultDTO));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_STOCK_MOVEMENTS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(batchDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(StockMovementStatus.APPLIED.toString())))
+                .andExpect(jsonPath("$[0].quantity", is(15)));
+    }
+
+    @Test
+    void whenPOSTIsCalledWithEmptyStockMovementsThenBadRequestStatusIsReturned() throws Exception {
+        StockMovementBatchDTO batchDTO = StockMovementBatchDTO.builder()
+                .movements(Collections.emptyList())
+                .build();
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_STOCK_MOVEMENTS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(batchDTO)))
+                .andExpect(status().isBadRequest());
+    }
+}
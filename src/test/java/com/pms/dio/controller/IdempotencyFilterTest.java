@@ -0,0 +1,213 @@
+package com.pms.dio.controller;
+
+import static com.pms.dio.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.config.IdempotencyProperties;
+import com.pms.dio.config.RateLimitProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.QuantityDTO;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.service.BeerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyFilterTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final long VALID_BEER_ID = 1L;
+    private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    private MockMvc mockMvc;
+
+    private IdempotencyFilter idempotencyFilter;
+
+    @Mock
+    private BeerService beerServ;
+
+    @InjectMocks
+    private BeerController beerController;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyFilter = new IdempotencyFilter();
+        ReflectionTestUtils.setField(idempotencyFilter, "properties", new IdempotencyProperties());
+        ReflectionTestUtils.setField(idempotencyFilter, "registry", new SimpleMeterRegistry());
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setClientHeader(CLIENT_HEADER);
+        ClientIdentity clientIdentity = new ClientIdentity();
+        ReflectionTestUtils.setField(clientIdentity, "properties", rateLimitProperties);
+        ReflectionTestUtils.setField(idempotencyFilter, "clientIdentity", clientIdentity);
+        idempotencyFilter.init();
+        ReflectionTestUtils.setField(beerController, "objectMapper", new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(beerController)
+                .setControllerAdvice(new BeerExceptionHandler())
+                .addFilters(idempotencyFilter)
+                .build();
+    }
+
+    @Test
+    void whenPATCHIsRetriedWithSameIdempotencyKeyThenOriginalResponseIsReplayed() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerServ.increment(VALID_BEER_ID, 10)).thenReturn(beerDTO);
+
+        mockMvc.perform(increment("key-1", 10))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        mockMvc.perform(increment("key-1", 10))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+
+        verify(beerServ, times(1)).increment(VALID_BEER_ID, 10);
+    }
+
+    @Test
+    void whenPATCHIsCalledWithDifferentIdempotencyKeysThenEachIsApplied() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerServ.increment(VALID_BEER_ID, 10)).thenReturn(beerDTO);
+
+        mockMvc.perform(increment("key-1", 10)).andExpect(status().isOk());
+        mockMvc.perform(increment("key-2", 10)).andExpect(status().isOk());
+
+        verify(beerServ, times(2)).increment(VALID_BEER_ID, 10);
+    }
+
+    @Test
+    void whenIdempotencyKeyIsReusedForDifferentBodyThenUnprocessableEntityStatusIsReturned() throws Exception {
+        when(beerServ.increment(VALID_BEER_ID, 10)).thenReturn(BeerDTOBuilder.builder().build().toBeerDTO());
+
+        mockMvc.perform(increment("key-1", 10)).andExpect(status().isOk());
+        mockMvc.perform(increment("key-1", 5)).andExpect(status().isUnprocessableEntity());
+
+        verify(beerServ, times(1)).increment(VALID_BEER_ID, 10);
+    }
+
+    @Test
+    void whenRejectedPATCHIsRetriedWithSameIdempotencyKeyThenRejectionIsReplayed() throws Exception {
+        when(beerServ.increment(VALID_BEER_ID, 10)).thenThrow(new BeerStockExceededException(VALID_BEER_ID, 10, 45, 0, 0, 50));
+
+        mockMvc.perform(increment("key-1", 10)).andExpect(status().isBadRequest());
+        mockMvc.perform(increment("key-1", 10))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        verify(beerServ, times(1)).increment(VALID_BEER_ID, 10);
+    }
+
+    @Test
+    void whenPOSTIsRetriedWithSameIdempotencyKeyThenBeerIsCreatedOnce() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerServ.createBeer(beerDTO)).thenReturn(beerDTO);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post(BEER_API_URL_PATH)
+                    .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "create-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(asJsonString(beerDTO)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+        }
+
+        verify(beerServ, times(1)).createBeer(beerDTO);
+    }
+
+    @Test
+    void whenTwoClientsUseSameIdempotencyKeyThenEachIsApplied() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerServ.increment(VALID_BEER_ID, 10)).thenReturn(beerDTO);
+
+        mockMvc.perform(increment("key-1", 10).header(CLIENT_HEADER, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment("key-1", 10).header(CLIENT_HEADER, "bob"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        mockMvc.perform(increment("key-1", 10).header(CLIENT_HEADER, "alice"))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        verify(beerServ, times(2)).increment(VALID_BEER_ID, 10);
+    }
+
+    @Test
+    void whenBodyIsReadThroughReadListenerThenWholeBodyIsDelivered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", BEER_API_URL_PATH);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "create-1");
+        request.setContent("{\"name\":\"Brahma\"}".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        idempotencyFilter.doFilter(request, new MockHttpServletResponse(), (filteredRequest, filteredResponse) -> {
+            ServletInputStream in = filteredRequest.getInputStream();
+            in.setReadListener(new ReadListener() {
+
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            });
+        });
+
+        assertThat(read.toString(StandardCharsets.UTF_8), is(equalTo("{\"name\":\"Brahma\"}")));
+        assertThat(allDataRead.get(), is(true));
+    }
+
+    @Test
+    void whenIdempotencyKeyIsTooLongThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(increment("k".repeat(256), 10)).andExpect(status().isBadRequest());
+    }
+
+    private static MockHttpServletRequestBuilder increment(String idempotencyKey, int quantity) {
+        return patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(QuantityDTO.builder().quantity(quantity).build()));
+    }
+}
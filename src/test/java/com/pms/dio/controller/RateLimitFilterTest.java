@@ -0,0 +1,245 @@
+package com.pms.dio.controller;
+
+import static com.pms.dio.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.config.RateLimitProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerImportDTO;
+import com.pms.dio.dto.BeerImportResultDTO;
+import com.pms.dio.dto.QuantityDTO;
+import com.pms.dio.dto.StockMovementBatchDTO;
+import com.pms.dio.dto.StockMovementDTO;
+import com.pms.dio.service.BeerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitFilterTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final long VALID_BEER_ID = 1L;
+    private static final long OTHER_BEER_ID = 2L;
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    private MockMvc mockMvc;
+
+    private RateLimitProperties properties;
+
+    private SimpleMeterRegistry registry;
+
+    @Mock
+    private BeerService beerServ;
+
+    @InjectMocks
+    private BeerController beerController;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setClientHeader(CLIENT_HEADER);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void whenClientExceedsItsBucketThenTooManyRequestsIsReturnedWithRetryAfter() throws Exception {
+        properties.getClient().setCapacity(2);
+        properties.getClient().setRefillPerSecond(0.5);
+        buildMockMvc();
+        when(beerServ.increment(VALID_BEER_ID, 1)).thenReturn(BeerDTOBuilder.builder().build().toBeerDTO());
+
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment(VALID_BEER_ID, "alice"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+
+        verify(beerServ, times(2)).increment(VALID_BEER_ID, 1);
+        assertThat(rejections(RateLimitFilter.CLIENT), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenBeerExceedsItsBucketThenOtherBeersAreStillServed() throws Exception {
+        properties.getBeer().setCapacity(1);
+        properties.getBeer().setRefillPerSecond(0.1);
+        buildMockMvc();
+        when(beerServ.increment(VALID_BEER_ID, 1)).thenReturn(BeerDTOBuilder.builder().build().toBeerDTO());
+        when(beerServ.increment(OTHER_BEER_ID, 1)).thenReturn(BeerDTOBuilder.builder().id(OTHER_BEER_ID).build().toBeerDTO());
+
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment(VALID_BEER_ID, "bob"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+        mockMvc.perform(increment(OTHER_BEER_ID, "bob")).andExpect(status().isOk());
+
+        assertThat(rejections(RateLimitFilter.BEER), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenMutationsAreLimitedThenReadsAreStillServed() throws Exception {
+        properties.getClient().setCapacity(1);
+        properties.getClient().setRefillPerSecond(0.1);
+        buildMockMvc();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerServ.increment(VALID_BEER_ID, 1)).thenReturn(beerDTO);
+        when(beerServ.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()).header(CLIENT_HEADER, "alice"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenBeersAreCreatedOrImportedThenTheyAreNotLimited() throws Exception {
+        properties.getClient().setCapacity(1);
+        properties.getClient().setRefillPerSecond(0.1);
+        buildMockMvc();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerImportDTO beerImportDTO = BeerImportDTO.builder().beers(Collections.singletonList(beerDTO)).build();
+        when(beerServ.createBeer(beerDTO)).thenReturn(beerDTO);
+        when(beerServ.importBeers(beerImportDTO.getBeers())).thenReturn(new BeerImportResultDTO(1));
+        when(beerServ.increment(VALID_BEER_ID, 1)).thenReturn(beerDTO);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post(BEER_API_URL_PATH)
+                    .header(CLIENT_HEADER, "alice")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(asJsonString(beerDTO)))
+                    .andExpect(status().isCreated());
+            mockMvc.perform(post(BEER_API_URL_PATH + "/bulk")
+                    .header(CLIENT_HEADER, "alice")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(asJsonString(beerImportDTO)))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void whenStockMovementsAndReservationConfirmsExceedTheClientBucketThenTheyAreLimited() throws Exception {
+        properties.getClient().setCapacity(1);
+        properties.getClient().setRefillPerSecond(0.1);
+        buildMockMvc();
+        StockMovementBatchDTO batchDTO = StockMovementBatchDTO.builder()
+                .movements(Collections.singletonList(StockMovementDTO.builder().id(VALID_BEER_ID).delta(1).build()))
+                .build();
+        when(beerServ.applyMovements(batchDTO.getMovements())).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/stock-movements")
+                .header(CLIENT_HEADER, "alice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(batchDTO)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(BEER_API_URL_PATH + "/reservations/42/confirm").header(CLIENT_HEADER, "alice"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(delete(BEER_API_URL_PATH + "/reservations/42").header(CLIENT_HEADER, "alice"))
+                .andExpect(status().isTooManyRequests());
+
+        assertThat(rejections(RateLimitFilter.CLIENT), is(equalTo(2.0)));
+    }
+
+    @Test
+    void whenNoConcurrencySlotIsFreeThenRequestIsRejectedWithoutWaiting() throws Exception {
+        properties.getConcurrency().setInitialLimit(1);
+        properties.getConcurrency().setMaxLimit(1);
+        buildMockMvc();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(beerServ.increment(VALID_BEER_ID, 1)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return BeerDTOBuilder.builder().build().toBeerDTO();
+        });
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        started.await(10, TimeUnit.SECONDS);
+        try {
+            mockMvc.perform(increment(VALID_BEER_ID, "bob"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            release.countDown();
+        }
+        blocked.get(10, TimeUnit.SECONDS);
+
+        verify(beerServ, times(1)).increment(VALID_BEER_ID, 1);
+        assertThat(rejections(RateLimitFilter.CONCURRENCY), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenRateLimitIsDisabledThenMutationsAreNotLimited() throws Exception {
+        properties.setEnabled(false);
+        properties.getClient().setCapacity(1);
+        properties.getClient().setRefillPerSecond(0.1);
+        buildMockMvc();
+        when(beerServ.increment(VALID_BEER_ID, 1)).thenReturn(BeerDTOBuilder.builder().build().toBeerDTO());
+
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+        mockMvc.perform(increment(VALID_BEER_ID, "alice")).andExpect(status().isOk());
+    }
+
+    private void buildMockMvc() {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter();
+        ReflectionTestUtils.setField(rateLimitFilter, "properties", properties);
+        ReflectionTestUtils.setField(rateLimitFilter, "registry", registry);
+        ClientIdentity clientIdentity = new ClientIdentity();
+        ReflectionTestUtils.setField(clientIdentity, "properties", properties);
+        ReflectionTestUtils.setField(rateLimitFilter, "clientIdentity", clientIdentity);
+        rateLimitFilter.init();
+        ReflectionTestUtils.setField(beerController, "objectMapper", new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(beerController)
+                .setControllerAdvice(new BeerExceptionHandler())
+                .addFilters(rateLimitFilter)
+                .build();
+    }
+
+    private double rejections(String reason) {
+        return registry.counter(RateLimitFilter.REJECTIONS_METRIC, "reason", reason).count();
+    }
+
+    private static MockHttpServletRequestBuilder increment(long beerId, String client) {
+        return patch(BEER_API_URL_PATH + "/" + beerId + "/increment")
+                .header(CLIENT_HEADER, client)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(QuantityDTO.builder().quantity(1).build()));
+    }
+}
@@ -0,0 +1,255 @@
+package com.pms.dio.loadtest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.model.Beer;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.service.BeerService;
+
+/**
+ * Fires concurrent increment/decrement/findByName traffic at the embedded app and checks that no
+ * acknowledged stock adjustment was lost and that no two acknowledgements of a beer report the same
+ * version, i.e. every response shows its own adjustment and not another writer's. Run with {@code mvn -Pload test}; tune with
+ * {@code -Dload.threads}, {@code -Dload.duration}, {@code -Dload.beers} and the {@code load.*-weight} properties.
+ * Compare execution modes by repeating a run with {@code -Dbeer.web.execution-mode=virtual}.
+ * Each worker thread is its own rate-limited client; mutations shed with 429 are reported, not failed.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"logging.level.root=WARN",
+		"beer.rate-limit.client-header=" + StockLoadTest.CLIENT_HEADER })
+public class StockLoadTest {
+
+	static final String CLIENT_HEADER = "X-Client-Id";
+
+	private static final int MAX_STOCK = 100;
+
+	private static final int INITIAL_STOCK = 50;
+
+	private static final int MAX_DELTA = 5;
+
+	private enum Operation {
+		INCREMENT, DECREMENT, FIND_BY_NAME
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${beer.web.execution-mode}")
+	private String executionMode;
+
+	private final int threads = Integer.getInteger("load.threads", 16);
+
+	private final Duration duration = Duration.parse(System.getProperty("load.duration", "PT10S"));
+
+	private final int beerCount = Integer.getInteger("load.beers", 10);
+
+	private final int incrementWeight = Integer.getInteger("load.increment-weight", 40);
+
+	private final int decrementWeight = Integer.getInteger("load.decrement-weight", 40);
+
+	private final int findWeight = Integer.getInteger("load.find-weight", 20);
+
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+	private String run;
+
+	private long[] beerIds;
+
+	private AtomicLongArray acknowledgedDeltas;
+
+	private List<Set<Long>> acknowledgedVersions;
+
+	private final LongAdder duplicatedVersions = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder shed = new LongAdder();
+
+	private final LongAdder failures = new LongAdder();
+
+	@Test
+	void whenStockIsAdjustedConcurrentlyThenNoAcknowledgedDeltaIsLost() throws Exception {
+		seedBeers();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Map<Operation, Histogram>>> workers = new ArrayList<>();
+		long deadline = System.nanoTime() + duration.toNanos();
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			workers.add(executor.submit(() -> runWorker(deadline)));
+		}
+		Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+		for (Future<Map<Operation, Histogram>> worker : workers) {
+			worker.get().forEach((operation, histogram) -> latencies.computeIfAbsent(operation, op -> newHistogram()).add(histogram));
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		executor.shutdown();
+
+		report(latencies, elapsedNanos);
+
+		assertThat(failures.sum(), is(equalTo(0L)));
+		assertThat(duplicatedVersions.sum(), is(equalTo(0L)));
+		for (int i = 0; i < beerIds.length; i++) {
+			Beer beer = beerRepo.findById(beerIds[i]).orElseThrow();
+			assertThat(beer.getName(), beer.getQuantity(), is(equalTo((int) (INITIAL_STOCK + acknowledgedDeltas.get(i)))));
+			assertThat(beer.getName(), beer.getQuantity(), is(allOf(greaterThanOrEqualTo(0), lessThanOrEqualTo(MAX_STOCK))));
+		}
+	}
+
+	private void seedBeers() throws Exception {
+		run = Long.toString(System.nanoTime(), 36);
+		beerIds = new long[beerCount];
+		acknowledgedDeltas = new AtomicLongArray(beerCount);
+		acknowledgedVersions = new ArrayList<>(beerCount);
+		for (int i = 0; i < beerCount; i++) {
+			BeerDTO beer = BeerDTO.builder()
+					.name(beerName(run, i))
+					.brand("Load")
+					.max(MAX_STOCK)
+					.quantity(INITIAL_STOCK)
+					.type(BeerType.LAGER)
+					.build();
+			beerIds[i] = beerServ.createBeer(beer).getId();
+			acknowledgedVersions.add(ConcurrentHashMap.newKeySet());
+		}
+	}
+
+	private static String beerName(String run, int index) {
+		return "load-" + run + "-" + index;
+	}
+
+	private Map<Operation, Histogram> runWorker(long deadline) {
+		Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			latencies.put(operation, newHistogram());
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			int beer = random.nextInt(beerIds.length);
+			Operation operation = pickOperation(random);
+			long start = System.nanoTime();
+			try {
+				switch (operation) {
+				case INCREMENT:
+				case DECREMENT:
+					adjust(operation, beer, 1 + random.nextInt(MAX_DELTA));
+					break;
+				case FIND_BY_NAME:
+					expectStatus(send(HttpRequest.newBuilder(uri("/api/v1/beers/" + beerName(run, beer))).GET()), 200);
+					break;
+				}
+			} catch (Exception e) {
+				failures.increment();
+			}
+			latencies.get(operation).recordValue(System.nanoTime() - start);
+		}
+		return latencies;
+	}
+
+	private Operation pickOperation(ThreadLocalRandom random) {
+		int roll = random.nextInt(incrementWeight + decrementWeight + findWeight);
+		if (roll < incrementWeight) {
+			return Operation.INCREMENT;
+		}
+		return roll < incrementWeight + decrementWeight ? Operation.DECREMENT : Operation.FIND_BY_NAME;
+	}
+
+	private void adjust(Operation operation, int beer, int quantity) throws Exception {
+		String path = operation == Operation.INCREMENT ? "/increment" : "/decrement";
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/beers/" + beerIds[beer] + path))
+				.header("Content-Type", "application/json")
+				.method("PATCH", BodyPublishers.ofString("{\"quantity\":" + quantity + "}")));
+		if (response.statusCode() == 200) {
+			acknowledgedDeltas.addAndGet(beer, operation == Operation.INCREMENT ? quantity : -quantity);
+			if (!acknowledgedVersions.get(beer).add(objectMapper.readTree(response.body()).get("version").asLong())) {
+				duplicatedVersions.increment();
+			}
+		} else if (response.statusCode() == 400) {
+			rejected.increment();
+		} else if (response.statusCode() == 429) {
+			shed.increment();
+		} else {
+			failures.increment();
+		}
+	}
+
+	private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+		return httpClient.send(request.header(CLIENT_HEADER, Thread.currentThread().getName()).timeout(Duration.ofSeconds(30)).build(),
+				BodyHandlers.ofString());
+	}
+
+	private void expectStatus(HttpResponse<String> response, int status) {
+		if (response.statusCode() != status) {
+			failures.increment();
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static Histogram newHistogram() {
+		return new Histogram(Duration.ofMinutes(1).toNanos(), 3);
+	}
+
+	private void report(Map<Operation, Histogram> latencies, long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		long total = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+		System.out.printf("%nStock load test (%s): %d threads, %d beers, %.1fs, %.0f req/s, %d rejected, %d shed, %d failures%n",
+				executionMode, threads, beerCount, seconds, total / seconds, rejected.sum(), shed.sum(), failures.sum());
+		System.out.printf("%-14s %10s %10s %10s %10s %10s%n", "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms");
+		latencies.forEach((operation, histogram) -> System.out.printf("%-14s %10d %10.0f %10.2f %10.2f %10.2f%n",
+				operation, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+				histogram.getValueAtPercentile(50) / 1e6,
+				histogram.getValueAtPercentile(99) / 1e6,
+				histogram.getValueAtPercentile(99.9) / 1e6));
+	}
+}
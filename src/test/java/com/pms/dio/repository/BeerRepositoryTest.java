@@ -0,0 +1,207 @@
+package com.pms.dio.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+
+@DataJpaTest
+public class BeerRepositoryTest {
+
+	private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Beer savedBeer;
+
+	@BeforeEach
+	void setUp() {
+		Beer beer = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+		beer.setId(null);
+		savedBeer = beerRepo.saveAndFlush(beer);
+	}
+
+	@Test
+	void whenAdjustQuantityIsWithinBoundsThenStockIsUpdated() {
+		int updatedRows = beerRepo.adjustQuantity(savedBeer.getId(), 40);
+
+		assertThat(updatedRows, is(equalTo(1)));
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getQuantity(), is(equalTo(50)));
+	}
+
+	@Test
+	void whenAdjustQuantityIsAppliedThenVersionIsIncremented() {
+		beerRepo.adjustQuantity(savedBeer.getId(), 1);
+
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getVersion(), is(equalTo(savedBeer.getVersion() + 1)));
+	}
+
+	@Test
+	void whenAdjustQuantityAtVersionIsCalledWithStaleVersionThenNothingIsUpdated() {
+		assertThat(beerRepo.adjustQuantityAtVersion(savedBeer.getId(), 1, savedBeer.getVersion()), is(equalTo(1)));
+		assertThat(beerRepo.adjustQuantityAtVersion(savedBeer.getId(), 1, savedBeer.getVersion()), is(equalTo(0)));
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getQuantity(), is(equalTo(11)));
+	}
+
+	@Test
+	void whenAdjustQuantityExceedsMaxThenNothingIsUpdated() {
+		int updatedRows = beerRepo.adjustQuantity(savedBeer.getId(), 41);
+
+		assertThat(updatedRows, is(equalTo(0)));
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getQuantity(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenAdjustQuantityGoesBelowZeroThenNothingIsUpdated() {
+		int updatedRows = beerRepo.adjustQuantity(savedBeer.getId(), -11);
+
+		assertThat(updatedRows, is(equalTo(0)));
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getQuantity(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenAdjustQuantityIsCalledWithUnknownIdThenNothingIsUpdated() {
+		assertThat(beerRepo.adjustQuantity(savedBeer.getId() + 1, 1), is(equalTo(0)));
+	}
+
+	@Test
+	void whenReserveIsCalledThenOnlyUnreservedUnitsCanBeHeld() {
+		assertThat(beerRepo.reserve(savedBeer.getId(), 6), is(equalTo(1)));
+		assertThat(beerRepo.reserve(savedBeer.getId(), 5), is(equalTo(0)));
+		assertThat(beerRepo.reserve(savedBeer.getId(), 4), is(equalTo(1)));
+
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getReserved(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenAdjustQuantityGoesBelowReservedUnitsThenNothingIsUpdated() {
+		beerRepo.reserve(savedBeer.getId(), 4);
+
+		assertThat(beerRepo.adjustQuantity(savedBeer.getId(), -7), is(equalTo(0)));
+		assertThat(beerRepo.adjustQuantity(savedBeer.getId(), -6), is(equalTo(1)));
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getQuantity(), is(equalTo(4)));
+	}
+
+	@Test
+	void whenConfirmReservedIsCalledThenQuantityAndReservedUnitsDecrease() {
+		beerRepo.reserve(savedBeer.getId(), 4);
+
+		assertThat(beerRepo.confirmReserved(savedBeer.getId(), 4), is(equalTo(1)));
+
+		Beer confirmedBeer = beerRepo.findById(savedBeer.getId()).get();
+		assertThat(confirmedBeer.getQuantity(), is(equalTo(6)));
+		assertThat(confirmedBeer.getReserved(), is(equalTo(0)));
+		assertThat(confirmedBeer.getVersion(), is(equalTo(savedBeer.getVersion() + 1)));
+	}
+
+	@Test
+	void whenAdjustAllocatedIsCalledThenQuantityAndAllocatedUnitsMoveTogether() {
+		assertThat(beerRepo.adjustAllocated(savedBeer.getId(), 30), is(equalTo(1)));
+		assertThat(beerRepo.adjustAllocated(savedBeer.getId(), 11), is(equalTo(0)));
+		assertThat(beerRepo.adjustAllocated(savedBeer.getId(), -31), is(equalTo(0)));
+
+		Beer allocatedBeer = beerRepo.findById(savedBeer.getId()).get();
+		assertThat(allocatedBeer.getQuantity(), is(equalTo(40)));
+		assertThat(allocatedBeer.getAllocated(), is(equalTo(30)));
+	}
+
+	@Test
+	void whenStockIsAllocatedToWarehousesThenPlainAdjustmentsAndReservationsOnlyUseUnassignedUnits() {
+		beerRepo.adjustAllocated(savedBeer.getId(), 30);
+
+		assertThat(beerRepo.reserve(savedBeer.getId(), 11), is(equalTo(0)));
+		assertThat(beerRepo.reserve(savedBeer.getId(), 4), is(equalTo(1)));
+		assertThat(beerRepo.adjustQuantity(savedBeer.getId(), -7), is(equalTo(0)));
+		assertThat(beerRepo.adjustQuantity(savedBeer.getId(), -6), is(equalTo(1)));
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getQuantity(), is(equalTo(34)));
+	}
+
+	@Test
+	void whenReservedBeerIsSavedThroughTheEntityThenReservedUnitsAreKept() {
+		beerRepo.reserve(savedBeer.getId(), 4);
+		savedBeer.setQuantity(12);
+
+		beerRepo.saveAndFlush(savedBeer);
+		entityManager.clear();
+
+		assertThat(beerRepo.findById(savedBeer.getId()).get().getReserved(), is(equalTo(4)));
+	}
+
+	@Test
+	void whenPageOrderByBrandIsCalledAfterACursorThenTiesAreBrokenById() {
+		Beer skol = beerMapper.toModel(BeerDTOBuilder.builder().name("Skol").build().toBeerDTO());
+		skol.setId(null);
+		Beer colorado = beerMapper.toModel(BeerDTOBuilder.builder().name("Colorado").brand("Colorado").build().toBeerDTO());
+		colorado.setId(null);
+		beerRepo.saveAndFlush(skol);
+		beerRepo.saveAndFlush(colorado);
+
+		List<String> afterFirstAmbev = beerRepo.findPageOrderByBrand("Ambev", savedBeer.getId(), PageRequest.of(0, 10))
+				.stream().map(Beer::getName).collect(Collectors.toList());
+
+		assertThat(afterFirstAmbev, contains("Skol", "Colorado"));
+	}
+
+	@Test
+	void whenSumQuantityByTypeIsCalledThenStockIsGroupedByType() {
+		Beer skol = beerMapper.toModel(BeerDTOBuilder.builder().name("Skol").quantity(5).build().toBeerDTO());
+		skol.setId(null);
+		Beer stout = beerMapper.toModel(BeerDTOBuilder.builder().name("Guinness").quantity(7).type(BeerType.STOUT).build().toBeerDTO());
+		stout.setId(null);
+		beerRepo.saveAndFlush(skol);
+		beerRepo.saveAndFlush(stout);
+
+		Map<BeerType, Long> stockByType = beerRepo.sumQuantityByType().stream()
+				.collect(Collectors.toMap(BeerTypeStock::getType, BeerTypeStock::getQuantity));
+
+		assertThat(stockByType, is(equalTo(Map.of(BeerType.LAGER, 15L, BeerType.STOUT, 7L))));
+	}
+
+	@Test
+	void whenSumQuantityByBrandIsCalledThenBeersQuantityAndCapacityAreGroupedByBrand() {
+		Beer colorado = beerMapper.toModel(BeerDTOBuilder.builder().name("Colorado").brand("Colorado").max(20).quantity(5).build().toBeerDTO());
+		colorado.setId(null);
+		beerRepo.saveAndFlush(colorado);
+
+		List<String> brandStock = beerRepo.sumQuantityByBrand().stream()
+				.map(stock -> stock.getBrand() + ":" + stock.getBeers() + ":" + stock.getQuantity() + ":" + stock.getCapacity())
+				.collect(Collectors.toList());
+
+		assertThat(brandStock, contains("Ambev:1:10:50", "Colorado:1:5:20"));
+	}
+
+	@Test
+	void whenFindLowStockIsCalledThenOnlyBeersUnderTheFillRatioAreReturnedEmptiestFirst() {
+		Beer skol = beerMapper.toModel(BeerDTOBuilder.builder().name("Skol").quantity(2).build().toBeerDTO());
+		skol.setId(null);
+		Beer full = beerMapper.toModel(BeerDTOBuilder.builder().name("Full").quantity(50).build().toBeerDTO());
+		full.setId(null);
+		beerRepo.saveAndFlush(skol);
+		beerRepo.saveAndFlush(full);
+
+		List<String> lowStock = beerRepo.findLowStock(0.2, PageRequest.of(0, 10))
+				.stream().map(Beer::getName).collect(Collectors.toList());
+
+		assertThat(lowStock, contains("Skol", "Brahma"));
+	}
+}
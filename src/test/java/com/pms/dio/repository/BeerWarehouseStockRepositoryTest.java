@@ -0,0 +1,54 @@
+package com.pms.dio.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.pms.dio.model.BeerWarehouseStock;
+
+@DataJpaTest
+public class BeerWarehouseStockRepositoryTest {
+
+	private static final long BEER_ID = 1L;
+
+	@Autowired
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Test
+	void whenAddStockIsCalledThenTheLocationIsCreatedOnceAndThenIncremented() {
+		warehouseStockRepo.addStock(BEER_ID, "north", 5);
+		warehouseStockRepo.addStock(BEER_ID, "north", 3);
+		warehouseStockRepo.addStock(BEER_ID, "east", 2);
+
+		assertThat(warehouseStockRepo.findByBeerIdOrderByWarehouse(BEER_ID).stream()
+				.map(stock -> stock.getWarehouse() + "=" + stock.getQuantity())
+				.collect(Collectors.toList()), contains("east=2", "north=8"));
+	}
+
+	@Test
+	void whenTakeStockExceedsTheLocationThenNothingIsUpdated() {
+		warehouseStockRepo.addStock(BEER_ID, "north", 5);
+
+		assertThat(warehouseStockRepo.takeStock(BEER_ID, "north", 6), is(equalTo(0)));
+		assertThat(warehouseStockRepo.takeStock(BEER_ID, "south", 1), is(equalTo(0)));
+		assertThat(warehouseStockRepo.takeStock(BEER_ID, "north", 5), is(equalTo(1)));
+		assertThat(warehouseStockRepo.findById(new BeerWarehouseStock.Key(BEER_ID, "north")).get().getQuantity(), is(equalTo(0)));
+	}
+
+	@Test
+	void whenDeleteByBeerIdIsCalledThenEveryLocationOfTheBeerIsRemoved() {
+		warehouseStockRepo.addStock(BEER_ID, "north", 5);
+		warehouseStockRepo.addStock(BEER_ID, "south", 5);
+		warehouseStockRepo.addStock(BEER_ID + 1, "north", 5);
+
+		assertThat(warehouseStockRepo.deleteByBeerId(BEER_ID), is(equalTo(2)));
+		assertThat(warehouseStockRepo.count(), is(equalTo(1L)));
+	}
+}
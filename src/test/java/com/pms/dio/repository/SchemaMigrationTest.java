@@ -0,0 +1,46 @@
+package com.pms.dio.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.service.BeerService;
+
+/**
+ * Boots the {@code prod} profile, where the schema comes from the Flyway migrations and Hibernate only
+ * validates it, against a throwaway in-memory database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("prod")
+public class SchemaMigrationTest {
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Test
+	void whenProdProfileStartsThenMigratedSchemaMatchesTheEntities() throws Exception {
+		assertThat(flyway.info().pending().length, is(equalTo(0)));
+
+		BeerDTO beer = beerServ.createBeer(BeerDTO.builder()
+				.name("Migrated")
+				.brand("Flyway")
+				.max(10)
+				.quantity(5)
+				.type(BeerType.IPA)
+				.build());
+
+		assertThat(beerServ.increment(beer.getId(), 3).getQuantity(), is(equalTo(8)));
+		assertThat(beerServ.findByName("Migrated").getVersion(), is(equalTo(1L)));
+	}
+}
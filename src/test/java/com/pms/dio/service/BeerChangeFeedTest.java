@@ -0,0 +1,149 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.config.BeerChangeFeedProperties;
+import com.pms.dio.dto.BeerChangeDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.exception.BeerChangesExpiredException;
+
+public class BeerChangeFeedTest {
+
+	private BeerChangeFeed beerChangeFeed;
+
+	@BeforeEach
+	void setUp() {
+		BeerChangeFeedProperties properties = new BeerChangeFeedProperties();
+		properties.setCapacity(3);
+		beerChangeFeed = new BeerChangeFeed();
+		ReflectionTestUtils.setField(beerChangeFeed, "properties", properties);
+		beerChangeFeed.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		beerChangeFeed.shutdown();
+	}
+
+	@Test
+	void whenChangesArePublishedThenTheyAreNumberedInOrder() throws BeerChangesExpiredException {
+		publish(BeerChangeType.CREATED, 0);
+		publish(BeerChangeType.STOCK_CHANGED, 5);
+
+		List<BeerChangeDTO> changes = beerChangeFeed.changesSince(0, 10);
+
+		assertThat(sequences(changes), contains(1L, 2L));
+		assertThat(changes.get(1).getType(), is(equalTo(BeerChangeType.STOCK_CHANGED)));
+		assertThat(changes.get(1).getDelta(), is(equalTo(5)));
+		assertThat(beerChangeFeed.getLastSequence(), is(equalTo(2L)));
+	}
+
+	@Test
+	void whenChangesSinceIsCalledThenOnlyLaterChangesUpToLimitAreReturned() throws BeerChangesExpiredException {
+		publish(BeerChangeType.CREATED, 0);
+		publish(BeerChangeType.STOCK_CHANGED, 1);
+		publish(BeerChangeType.STOCK_CHANGED, 2);
+
+		assertThat(sequences(beerChangeFeed.changesSince(1, 1)), contains(2L));
+		assertThat(beerChangeFeed.changesSince(3, 10), is(empty()));
+	}
+
+	@Test
+	void whenRequestedSequenceWasOverwrittenThenChangesAreExpired() throws BeerChangesExpiredException {
+		for (int i = 0; i < 5; i++) {
+			publish(BeerChangeType.STOCK_CHANGED, i);
+		}
+
+		assertThat(sequences(beerChangeFeed.changesSince(2, 10)), contains(3L, 4L, 5L));
+		assertThrows(BeerChangesExpiredException.class, () -> beerChangeFeed.changesSince(1, 10));
+		assertThrows(BeerChangesExpiredException.class, () -> beerChangeFeed.subscribe(0L));
+	}
+
+	@Test
+	void whenASubscriberStallsThenOthersAreStillServedAndItIsCompletedOnceTooFarBehind() throws Exception {
+		CountDownLatch stalledSendStarted = new CountDownLatch(1);
+		CountDownLatch releaseStalledSend = new CountDownLatch(1);
+		CountDownLatch stalledCompleted = new CountDownLatch(1);
+		CountDownLatch allSentToOther = new CountDownLatch(5);
+		BeerChangeFeedProperties properties = new BeerChangeFeedProperties();
+		properties.setCapacity(100);
+		properties.setDispatchThreads(2);
+		properties.setSubscriberMaxLag(2);
+		Deque<SseEmitter> emitters = new ArrayDeque<>(List.of(
+				new SseEmitter() {
+
+					@Override
+					public void send(SseEventBuilder builder) throws IOException {
+						stalledSendStarted.countDown();
+						try {
+							releaseStalledSend.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+
+					@Override
+					public void complete() {
+						stalledCompleted.countDown();
+					}
+				},
+				new SseEmitter() {
+
+					@Override
+					public void send(SseEventBuilder builder) throws IOException {
+						allSentToOther.countDown();
+					}
+				}));
+		beerChangeFeed.shutdown();
+		beerChangeFeed = new BeerChangeFeed() {
+
+			@Override
+			SseEmitter newEmitter(long timeoutMillis) {
+				return emitters.pop();
+			}
+		};
+		ReflectionTestUtils.setField(beerChangeFeed, "properties", properties);
+		beerChangeFeed.init();
+		beerChangeFeed.subscribe(0L);
+		beerChangeFeed.subscribe(0L);
+
+		publish(BeerChangeType.STOCK_CHANGED, 1);
+		stalledSendStarted.await(10, TimeUnit.SECONDS);
+		for (int i = 2; i <= 5; i++) {
+			publish(BeerChangeType.STOCK_CHANGED, i);
+		}
+
+		assertThat(allSentToOther.await(10, TimeUnit.SECONDS), is(true));
+		assertThat(stalledCompleted.getCount(), is(equalTo(1L)));
+		releaseStalledSend.countDown();
+		assertThat(stalledCompleted.await(10, TimeUnit.SECONDS), is(true));
+	}
+
+	private void publish(BeerChangeType changeType, int delta) {
+		beerChangeFeed.onBeerChanged(new BeerChangedEvent(changeType, BeerDTOBuilder.builder().build().toBeerDTO(), delta));
+	}
+
+	private static List<Long> sequences(List<BeerChangeDTO> changes) {
+		return changes.stream().map(BeerChangeDTO::getSequence).collect(Collectors.toList());
+	}
+}
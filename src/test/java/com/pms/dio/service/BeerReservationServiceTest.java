@@ -0,0 +1,161 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.config.BeerReservationProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.exception.BeerReservationConflictException;
+import com.pms.dio.exception.BeerReservationNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerReservation;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerReservationRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerReservationServiceTest {
+
+	private static final long RESERVATION_ID = 7L;
+
+	private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+	@Mock
+	private BeerRepository beerRepo;
+
+	@Mock
+	private BeerReservationRepository reservationRepo;
+
+	@Mock
+	private StockBuffer stockBuffer;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Spy
+	private BeerReservationProperties properties = new BeerReservationProperties();
+
+	@InjectMocks
+	private BeerReservationService reservationService;
+
+	private Beer beer;
+
+	@BeforeEach
+	void setUp() {
+		beer = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+	}
+
+	@Test
+	void whenReserveIsCalledThenUnitsAreHeldUntilTheClampedTtl() throws Exception {
+		when(beerRepo.reserve(beer.getId(), 3)).thenReturn(1);
+		when(reservationRepo.save(any(BeerReservation.class))).thenAnswer(invocation -> {
+			BeerReservation reservation = invocation.getArgument(0);
+			reservation.setId(RESERVATION_ID);
+			return reservation;
+		});
+
+		BeerReservationDTO reservationDTO = reservationService.reserve(beer.getId(), 3, Duration.ofDays(1));
+		Instant after = Instant.now();
+
+		assertThat(reservationDTO.getId(), is(equalTo(RESERVATION_ID)));
+		assertThat(reservationDTO.getQuantity(), is(equalTo(3)));
+		assertThat(reservationDTO.getExpiresAt().isAfter(after.plus(properties.getMaxTtl())), is(false));
+		verify(eventPublisher).publishEvent(reservationDTO);
+	}
+
+	@Test
+	void whenReserveExceedsUnreservedUnitsThenThrowException() {
+		beer.setReserved(8);
+		when(beerRepo.reserve(beer.getId(), 3)).thenReturn(0);
+		when(beerRepo.findById(beer.getId())).thenReturn(Optional.of(beer));
+
+		BeerStockExceededException exception = assertThrows(BeerStockExceededException.class,
+				() -> reservationService.reserve(beer.getId(), 3, null));
+
+		assertThat(exception.getRequestedDelta(), is(equalTo(-3)));
+		assertThat(exception.getReserved(), is(equalTo(8)));
+		verify(reservationRepo, never()).save(any(BeerReservation.class));
+	}
+
+	@Test
+	void whenBufferedBeerIsReservedThenThrowException() {
+		when(stockBuffer.isBuffered(beer.getId())).thenReturn(true);
+
+		assertThrows(BeerReservationConflictException.class, () -> reservationService.reserve(beer.getId(), 3, null));
+		verify(beerRepo, never()).reserve(any(), anyInt());
+	}
+
+	@Test
+	void whenReservationIsConfirmedThenReservedUnitsAreDecremented() throws Exception {
+		BeerReservation reservation = new BeerReservation(RESERVATION_ID, beer.getId(), 4, Instant.now().plusSeconds(60));
+		beer.setQuantity(6);
+		when(reservationRepo.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation));
+		when(reservationRepo.claimActive(eq(RESERVATION_ID), any(Instant.class))).thenReturn(1);
+		when(beerRepo.confirmReserved(beer.getId(), 4)).thenReturn(1);
+		when(beerRepo.findById(beer.getId())).thenReturn(Optional.of(beer));
+
+		BeerDTO confirmedBeerDTO = reservationService.confirm(RESERVATION_ID);
+
+		assertThat(confirmedBeerDTO.getQuantity(), is(equalTo(6)));
+		ArgumentCaptor<BeerChangedEvent> event = ArgumentCaptor.forClass(BeerChangedEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertThat(event.getValue().getChangeType(), is(equalTo(BeerChangeType.STOCK_CHANGED)));
+		assertThat(event.getValue().getDelta(), is(equalTo(-4)));
+	}
+
+	@Test
+	void whenExpiredReservationIsConfirmedThenThrowException() {
+		BeerReservation reservation = new BeerReservation(RESERVATION_ID, beer.getId(), 4, Instant.now().minusSeconds(1));
+		when(reservationRepo.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation));
+		when(reservationRepo.claimActive(eq(RESERVATION_ID), any(Instant.class))).thenReturn(0);
+
+		assertThrows(BeerReservationNotFoundException.class, () -> reservationService.confirm(RESERVATION_ID));
+		verify(beerRepo, never()).confirmReserved(any(), anyInt());
+	}
+
+	@Test
+	void whenReservationIsReleasedTwiceThenSecondReleaseThrowsException() throws Exception {
+		BeerReservation reservation = new BeerReservation(RESERVATION_ID, beer.getId(), 4, Instant.now().plusSeconds(60));
+		when(reservationRepo.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation), Optional.empty());
+		when(reservationRepo.claim(RESERVATION_ID)).thenReturn(1);
+
+		reservationService.release(RESERVATION_ID);
+
+		assertThrows(BeerReservationNotFoundException.class, () -> reservationService.release(RESERVATION_ID));
+		verify(beerRepo).releaseReserved(beer.getId(), 4);
+	}
+
+	@Test
+	void whenSettledReservationComesDueThenNothingIsReleased() {
+		when(reservationRepo.findById(RESERVATION_ID)).thenReturn(Optional.empty());
+
+		assertThat(reservationService.expire(RESERVATION_ID), is(false));
+		verify(beerRepo, never()).releaseReserved(any(), anyInt());
+	}
+}
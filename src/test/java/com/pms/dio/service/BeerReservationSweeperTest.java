@@ -0,0 +1,55 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerReservationDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerReservationRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reservations;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class BeerReservationSweeperTest {
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private BeerReservationService reservationService;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerReservationRepository reservationRepo;
+
+	@Test
+	void whenReservationExpiresThenSweeperReleasesTheHeldUnits() throws Exception {
+		BeerDTO beer = beerServ.createBeer(BeerDTO.builder()
+				.name("Expiring")
+				.brand("Sweeper")
+				.max(10)
+				.quantity(5)
+				.type(BeerType.ALE)
+				.build());
+		BeerReservationDTO reservation = reservationService.reserve(beer.getId(), 5, Duration.ofSeconds(1));
+		assertThat(beerRepo.findById(beer.getId()).get().getReserved(), is(equalTo(5)));
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (reservationRepo.existsById(reservation.getId()) && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertThat(reservationRepo.existsById(reservation.getId()), is(false));
+		assertThat(beerRepo.findById(beer.getId()).get().getReserved(), is(equalTo(0)));
+		assertThat(beerServ.decrement(beer.getId(), 5).getQuantity(), is(equalTo(0)));
+	}
+}
@@ -0,0 +1,136 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerSearchCriteriaDTO;
+import com.pms.dio.dto.BeerSearchResultDTO;
+import com.pms.dio.enums.BeerChangeType;
+import com.pms.dio.enums.BeerType;
+
+public class BeerSearchIndexTest {
+
+	private BeerSearchIndex beerSearchIndex;
+
+	private BeerDTO brahma;
+
+	@BeforeEach
+	void setUp() {
+		beerSearchIndex = new BeerSearchIndex();
+		brahma = BeerDTOBuilder.builder().id(1L).name("Brahma Chopp").brand("Ambev").quantity(10).max(50).build().toBeerDTO();
+		create(brahma);
+		create(BeerDTOBuilder.builder().id(2L).name("Colorado Appia").brand("Colorado").type(BeerType.ALE).quantity(45).max(50).build().toBeerDTO());
+		create(BeerDTOBuilder.builder().id(3L).name("Bohemia").brand("Ambev").quantity(2).max(50).build().toBeerDTO());
+	}
+
+	@Test
+	void whenQueryIsASubstringThenNameAndBrandAreMatched() {
+		assertThat(names(search("hopp")), contains("Brahma Chopp"));
+		assertThat(names(search("AMBEV")), contains("Brahma Chopp", "Bohemia"));
+	}
+
+	@Test
+	void whenQueryIsShorterThanThreeCharactersThenOnlyWordPrefixesAreMatched() {
+		assertThat(names(search("ap")), contains("Colorado Appia"));
+		assertThat(names(search("ch")), contains("Brahma Chopp"));
+		assertThat(names(search("hm")), is(empty()));
+	}
+
+	@Test
+	void whenStockFiltersAreInformedThenOnlyBeersWithinRangeAreReturned() {
+		BeerSearchCriteriaDTO lowStock = new BeerSearchCriteriaDTO();
+		lowStock.setMaxFillRatio(0.2);
+
+		assertThat(names(beerSearchIndex.search(lowStock)), containsInAnyOrder("Brahma Chopp", "Bohemia"));
+
+		lowStock.setType(BeerType.ALE);
+		assertThat(names(beerSearchIndex.search(lowStock)), is(empty()));
+	}
+
+	@Test
+	void whenSearchIsCalledThenFacetsCountEveryMatch() {
+		BeerSearchCriteriaDTO criteria = new BeerSearchCriteriaDTO();
+		criteria.setSize(1);
+
+		BeerSearchResultDTO result = beerSearchIndex.search(criteria);
+
+		assertThat(result.getTotal(), is(equalTo(3L)));
+		assertThat(result.getBeers().size(), is(equalTo(1)));
+		assertThat(result.getTypes(), is(equalTo(Map.of(BeerType.LAGER, 2L, BeerType.ALE, 1L))));
+		assertThat(result.getBrands(), is(equalTo(Map.of("Ambev", 2L, "Colorado", 1L))));
+	}
+
+	@Test
+	void whenStockChangesAndBeersAreDeletedThenIndexFollows() {
+		beerSearchIndex.onBeerChanged(new BeerChangedEvent(BeerChangeType.STOCK_CHANGED, brahma, 30));
+		beerSearchIndex.onBeerChanged(new BeerChangedEvent(BeerChangeType.DELETED,
+				BeerDTOBuilder.builder().id(3L).build().toBeerDTO(), 0));
+
+		BeerSearchResultDTO result = search("ambev");
+
+		assertThat(names(result), contains("Brahma Chopp"));
+		assertThat(result.getBeers().get(0).getQuantity(), is(equalTo(40)));
+	}
+
+	@Test
+	void whenBeerIsDeletedThenItsPostingsAreDroppedAndItsOrdinalIsReused() {
+		beerSearchIndex.onBeerChanged(new BeerChangedEvent(BeerChangeType.DELETED,
+				BeerDTOBuilder.builder().id(3L).build().toBeerDTO(), 0));
+
+		assertThat(names(search("bohemia")), is(empty()));
+		assertThat(postingsByTerm().containsKey("boh"), is(false));
+
+		create(BeerDTOBuilder.builder().id(4L).name("Skol").brand("Ambev").quantity(5).max(50).build().toBeerDTO());
+
+		assertThat(names(search("ambev")), contains("Brahma Chopp", "Skol"));
+		assertThat(names(search("sk")), contains("Skol"));
+		assertThat(ReflectionTestUtils.getField(beerSearchIndex, "nextOrdinal"), is(equalTo(3)));
+	}
+
+	@Test
+	void whenBeersAreCreatedAndDeletedRepeatedlyThenIndexDoesNotGrow() {
+		int terms = postingsByTerm().size();
+		for (long id = 10; id < 1000; id++) {
+			create(BeerDTOBuilder.builder().id(id).name("Seasonal " + id).brand("Brewery " + id).build().toBeerDTO());
+			beerSearchIndex.onBeerChanged(new BeerChangedEvent(BeerChangeType.DELETED,
+					BeerDTOBuilder.builder().id(id).build().toBeerDTO(), 0));
+		}
+
+		assertThat(postingsByTerm().size(), is(equalTo(terms)));
+		assertThat(ReflectionTestUtils.getField(beerSearchIndex, "nextOrdinal"), is(equalTo(4)));
+		assertThat(names(search("seasonal")), is(empty()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, ?> postingsByTerm() {
+		return (Map<String, ?>) ReflectionTestUtils.getField(beerSearchIndex, "postingsByTerm");
+	}
+
+	private void create(BeerDTO beerDTO) {
+		beerSearchIndex.onBeerChanged(new BeerChangedEvent(BeerChangeType.CREATED, beerDTO, 0));
+	}
+
+	private BeerSearchResultDTO search(String query) {
+		BeerSearchCriteriaDTO criteria = new BeerSearchCriteriaDTO();
+		criteria.setQ(query);
+		return beerSearchIndex.search(criteria);
+	}
+
+	private static List<String> names(BeerSearchResultDTO result) {
+		return result.getBeers().stream().map(BeerDTO::getName).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,126 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.StockMovementDTO;
+import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.repository.BeerMetadataRepository;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerWarehouseStockRepository;
+
+@SpringBootTest
+public class BeerSecondLevelCacheTest {
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private BeerWarehouseService warehouseService;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerMetadataRepository metadataRepo;
+
+	@Autowired
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Cache cache;
+
+	private BeerDTO savedBeerDTO;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		cache = entityManagerFactory.getCache();
+		BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).build().toBeerDTO();
+		savedBeerDTO = beerServ.createBeer(beerDTO);
+		cache.evictAll();
+	}
+
+	@AfterEach
+	void tearDown() {
+		warehouseStockRepo.deleteAll();
+		beerRepo.deleteAll();
+		cache.evictAll();
+	}
+
+	@Test
+	void whenMetadataIsFoundAgainThenItIsServedFromItsRegion() {
+		metadataRepo.findById(savedBeerDTO.getId());
+		long hits = statistics.getSecondLevelCacheHitCount();
+		long statements = statistics.getPrepareStatementCount();
+
+		BeerMetadata metadata = metadataRepo.findById(savedBeerDTO.getId()).orElseThrow();
+
+		assertThat(metadata.getName(), is(equalTo(savedBeerDTO.getName())));
+		assertThat(statistics.getSecondLevelCacheHitCount(), is(equalTo(hits + 1)));
+		assertThat(statistics.getPrepareStatementCount(), is(equalTo(statements)));
+	}
+
+	@Test
+	void whenBeerIsLoadedThenItIsNotCached() {
+		beerRepo.findById(savedBeerDTO.getId());
+
+		assertThat(cache.contains(Beer.class, savedBeerDTO.getId()), is(false));
+	}
+
+	@Test
+	void whenStockIsIncrementedAndDecrementedThenCachedMetadataIsStillHit() throws Exception {
+		beerServ.increment(savedBeerDTO.getId(), 5);
+		long hits = statistics.getSecondLevelCacheHitCount();
+
+		BeerDTO incremented = beerServ.increment(savedBeerDTO.getId(), 5);
+		BeerDTO decremented = beerServ.decrement(savedBeerDTO.getId(), 3);
+
+		assertThat(incremented.getQuantity(), is(equalTo(savedBeerDTO.getQuantity() + 10)));
+		assertThat(decremented.getQuantity(), is(equalTo(savedBeerDTO.getQuantity() + 7)));
+		assertThat(statistics.getSecondLevelCacheHitCount(), is(equalTo(hits + 2)));
+		assertThat(cache.contains(BeerMetadata.class, savedBeerDTO.getId()), is(true));
+	}
+
+	@Test
+	void whenMovementsAndWarehouseStockAreAppliedThenCachedMetadataStays() throws Exception {
+		metadataRepo.findById(savedBeerDTO.getId());
+
+		beerServ.applyMovements(List.of(new StockMovementDTO(savedBeerDTO.getId(), 3), new StockMovementDTO(savedBeerDTO.getId(), -1)));
+		warehouseService.increment(savedBeerDTO.getId(), "north", 2);
+
+		assertThat(cache.contains(BeerMetadata.class, savedBeerDTO.getId()), is(true));
+		assertThat(beerRepo.findById(savedBeerDTO.getId()).orElseThrow().getQuantity(), is(equalTo(savedBeerDTO.getQuantity() + 4)));
+	}
+
+	@Test
+	void whenBeerIsDeletedThenItsMetadataIsEvicted() throws Exception {
+		metadataRepo.findById(savedBeerDTO.getId());
+
+		beerServ.deleteById(savedBeerDTO.getId());
+
+		assertThat(cache.contains(BeerMetadata.class, savedBeerDTO.getId()), is(false));
+		assertThat(metadataRepo.findById(savedBeerDTO.getId()).isPresent(), is(false));
+	}
+}
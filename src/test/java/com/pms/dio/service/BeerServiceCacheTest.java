@@ -0,0 +1,147 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerWarehouseStockRepository;
+
+@SpringBootTest
+public class BeerServiceCacheTest {
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private BeerWarehouseService warehouseService;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Cache beersByName;
+
+	private BeerDTO savedBeerDTO;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		beersByName = cacheManager.getCache(BeerService.BEERS_BY_NAME_CACHE);
+		beersByName.clear();
+		BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).build().toBeerDTO();
+		savedBeerDTO = beerServ.createBeer(beerDTO);
+		beersByName.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		warehouseStockRepo.deleteAll();
+		beerRepo.deleteAll();
+	}
+
+	@Test
+	void whenBeerIsFoundByNameThenOnlyItsMetadataIsCached() throws Exception {
+		beerServ.findByName(savedBeerDTO.getName());
+
+		assertThat(beersByName.get(savedBeerDTO.getName()).get(), is(instanceOf(BeerMetadata.class)));
+		assertThat(beerServ.findByName(savedBeerDTO.getName()), is(equalTo(savedBeerDTO)));
+	}
+
+	@Test
+	void whenStockIsIncrementedThenFoundBeerHasTheNewStock() throws Exception {
+		beerServ.findByName(savedBeerDTO.getName());
+
+		beerServ.increment(savedBeerDTO.getId(), 5);
+
+		assertThat(beerServ.findByName(savedBeerDTO.getName()).getQuantity(), is(equalTo(savedBeerDTO.getQuantity() + 5)));
+	}
+
+	@Test
+	void whenStockIsDecrementedThenFoundBeerHasTheNewStock() throws Exception {
+		beerServ.findByName(savedBeerDTO.getName());
+
+		beerServ.decrement(savedBeerDTO.getId(), 5);
+
+		assertThat(beerServ.findByName(savedBeerDTO.getName()).getQuantity(), is(equalTo(savedBeerDTO.getQuantity() - 5)));
+	}
+
+	@Test
+	void whenBeerIsReadWhileItsStockChangesThenTheCommittedStockIsFoundAfterwards() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				beerServ.increment(savedBeerDTO.getId(), 5);
+				BeerDTO concurrentRead = CompletableFuture.supplyAsync(() -> {
+					try {
+						return beerServ.findByName(savedBeerDTO.getName());
+					} catch (BeerNotFoundException e) {
+						throw new IllegalStateException(e);
+					}
+				}).get(10, TimeUnit.SECONDS);
+				assertThat(concurrentRead.getQuantity(), is(equalTo(savedBeerDTO.getQuantity())));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		assertThat(beersByName.get(savedBeerDTO.getName()), is(notNullValue()));
+		assertThat(beerServ.findByName(savedBeerDTO.getName()).getQuantity(), is(equalTo(savedBeerDTO.getQuantity() + 5)));
+	}
+
+	@Test
+	void whenBeerIsDeletedThenCachedBeerIsEvicted() throws Exception {
+		beerServ.findByName(savedBeerDTO.getName());
+
+		beerServ.deleteById(savedBeerDTO.getId());
+
+		assertThat(beersByName.get(savedBeerDTO.getName()), is(nullValue()));
+	}
+
+	@Test
+	void whenCachedMetadataBelongsToADeletedBeerThenTheBeerNowNamedSoIsFound() throws Exception {
+		beerServ.deleteById(savedBeerDTO.getId());
+		BeerDTO recreatedBeerDTO = beerServ.createBeer(BeerDTOBuilder.builder().id(null).quantity(3).build().toBeerDTO());
+		beersByName.put(savedBeerDTO.getName(), new BeerMetadata(savedBeerDTO.getId(), savedBeerDTO.getName(),
+				savedBeerDTO.getBrand(), savedBeerDTO.getMax(), savedBeerDTO.getType()));
+
+		BeerDTO foundBeerDTO = beerServ.findByName(savedBeerDTO.getName());
+
+		assertThat(foundBeerDTO.getId(), is(equalTo(recreatedBeerDTO.getId())));
+		assertThat(foundBeerDTO.getQuantity(), is(equalTo(3)));
+	}
+
+	@Test
+	void whenWarehouseStockIsIncrementedThenFoundBeerHasTheNewStock() throws Exception {
+		beerServ.findByName(savedBeerDTO.getName());
+
+		warehouseService.increment(savedBeerDTO.getId(), "north", 5);
+
+		assertThat(beerServ.findByName(savedBeerDTO.getName()).getQuantity(), is(equalTo(savedBeerDTO.getQuantity() + 5)));
+	}
+}
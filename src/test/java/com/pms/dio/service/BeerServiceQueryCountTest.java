@@ -0,0 +1,152 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.repository.BeerMetadataRepository;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerWarehouseStockRepository;
+
+/**
+ * Counts the JDBC statements Hibernate prepares per mutation. The "before" figures replay the calls the
+ * service made before entity metadata was cached by id.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class BeerServiceQueryCountTest {
+
+	private static final long UNKNOWN_BEER_ID = Long.MAX_VALUE;
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private BeerWarehouseService warehouseService;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	@Autowired
+	private BeerMetadataRepository metadataRepo;
+
+	@Autowired
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManagerFactory.getCache().evict(BeerMetadata.class);
+	}
+
+	@Test
+	void whenBeerIsDeletedThenCachedMetadataSavesAStatement() throws Exception {
+		BeerDTO before = createBeer();
+		BeerDTO cold = createBeer();
+		BeerDTO warm = createBeer();
+		metadataRepo.findById(warm.getId());
+
+		long beforeStatements = countStatements(() -> {
+			beerRepo.findById(before.getId());
+			beerRepo.deleteById(before.getId());
+			warehouseStockRepo.deleteByBeerId(before.getId());
+		});
+		long coldStatements = countStatements(() -> beerServ.deleteById(cold.getId()));
+		long warmStatements = countStatements(() -> beerServ.deleteById(warm.getId()));
+
+		assertThat(beforeStatements, is(equalTo(4L)));
+		assertThat(coldStatements, is(equalTo(4L)));
+		assertThat(warmStatements, is(equalTo(3L)));
+		assertThat(beerRepo.existsById(warm.getId()), is(false));
+		assertThat(entityManagerFactory.getCache().contains(BeerMetadata.class, warm.getId()), is(false));
+	}
+
+	@Test
+	void whenUnknownBeerIsIncrementedThenNoUpdateIsIssued() {
+		long beforeStatements = countStatements(() -> {
+			beerRepo.adjustQuantity(UNKNOWN_BEER_ID, 1);
+			beerRepo.findById(UNKNOWN_BEER_ID);
+		});
+		long afterStatements = countStatements(() -> assertThrows(BeerNotFoundException.class,
+				() -> beerServ.increment(UNKNOWN_BEER_ID, 1)));
+
+		assertThat(beforeStatements, is(equalTo(2L)));
+		assertThat(afterStatements, is(equalTo(1L)));
+	}
+
+	@Test
+	void whenBeerIsIncrementedThenResponseCombinesCachedMetadataWithStockColumns() throws Exception {
+		BeerDTO beer = createBeer();
+		beerServ.increment(beer.getId(), 1);
+
+		long warmStatements = countStatements(() -> {
+			BeerDTO incremented = beerServ.increment(beer.getId(), 2);
+			assertThat(incremented.getName(), is(equalTo(beer.getName())));
+			assertThat(incremented.getMax(), is(equalTo(beer.getMax())));
+			assertThat(incremented.getQuantity(), is(equalTo(beer.getQuantity() + 3)));
+			assertThat(incremented.getVersion(), is(equalTo(beer.getVersion() + 2)));
+		});
+
+		assertThat(warmStatements, is(equalTo(2L)));
+	}
+
+	@Test
+	void whenWarehouseStockIsListedThenExistenceIsServedFromCache() throws Exception {
+		BeerDTO beer = createBeer();
+		metadataRepo.findById(beer.getId());
+
+		long beforeStatements = countStatements(() -> {
+			beerRepo.existsById(beer.getId());
+			warehouseStockRepo.findByBeerIdOrderByWarehouse(beer.getId());
+		});
+		long afterStatements = countStatements(() -> warehouseService.listStock(beer.getId()));
+
+		assertThat(beforeStatements, is(equalTo(2L)));
+		assertThat(afterStatements, is(equalTo(1L)));
+	}
+
+	private BeerDTO createBeer() throws Exception {
+		return beerServ.createBeer(BeerDTO.builder()
+				.name("Counted " + System.nanoTime())
+				.brand("Counted")
+				.max(50)
+				.quantity(10)
+				.type(BeerType.LAGER)
+				.build());
+	}
+
+	private long countStatements(StatementsBlock block) {
+		long start = statistics.getPrepareStatementCount();
+		try {
+			block.run();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return statistics.getPrepareStatementCount() - start;
+	}
+
+	private interface StatementsBlock {
+
+		void run() throws Exception;
+	}
+}
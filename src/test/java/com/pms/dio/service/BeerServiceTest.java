@@ -3,26 +3,50 @@ package com.pms.dio.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.EntityManager;
+
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.pms.dio.builder.BeerDTOBuilder;
 import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerImportResultDTO;
+import com.pms.dio.dto.BeerPageDTO;
+import com.pms.dio.dto.StockMovementDTO;
+import com.pms.dio.dto.StockMovementResultDTO;
+import com.pms.dio.enums.BeerSort;
+import com.pms.dio.enums.StockMovementStatus;
 import com.pms.dio.exception.BeerAlreadyRegisteredException;
 import com.pms.dio.exception.BeerNotFoundException;
 import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerVersionMismatchException;
+import com.pms.dio.exception.InvalidCursorException;
 import com.pms.dio.mapper.BeerMapper;
 import com.pms.dio.model.Beer;
+import com.pms.dio.model.BeerMetadata;
+import com.pms.dio.repository.BeerMetadataRepository;
 import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerStockState;
+import com.pms.dio.repository.BeerWarehouseStockRepository;
 
 @ExtendWith(MockitoExtension.class)
 public class BeerServiceTest {
@@ -33,6 +57,24 @@ public class BeerServiceTest {
 	
 	@Mock
 	private BeerRepository beerRepo;
+
+	@Mock
+	private BeerMetadataRepository metadataRepo;
+
+	@Mock
+	private BeerWarehouseStockRepository warehouseStockRepo;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@Mock
+	private StockBuffer stockBuffer;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Spy
+	private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 	
 	@InjectMocks
 	private BeerService beerServ;
@@ -73,6 +115,65 @@ public class BeerServiceTest {
 		
 	}
 	
+	//Bulk import
+	@Test
+	void whenBeersAreImportedThenTheyAreSavedInBatch() throws BeerAlreadyRegisteredException {
+		//given
+		BeerDTO brahma = BeerDTOBuilder.builder().build().toBeerDTO();
+		BeerDTO skol = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+		List<BeerDTO> beerDTOs = Arrays.asList(brahma, skol);
+
+		//when
+		when(beerRepo.findExistingNames(Mockito.anyCollection())).thenReturn(Collections.emptyList());
+
+		//then
+		BeerImportResultDTO importResult = beerServ.importBeers(beerDTOs);
+
+		assertThat(importResult.getImported(), is(equalTo(2)));
+		verify(beerRepo, times(1)).findExistingNames(Mockito.anyCollection());
+		verify(beerRepo, times(1)).saveAll(Mockito.anyIterable());
+		verify(entityManager, times(1)).flush();
+	}
+
+	@Test
+	void whenImportedBeersAreStreamedThenTheyAreSavedInChunks() throws BeerAlreadyRegisteredException {
+		//given
+		BeerDTO brahma = BeerDTOBuilder.builder().build().toBeerDTO();
+		BeerDTO skol = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+		//when
+		when(beerRepo.findExistingNames(Mockito.anyCollection())).thenReturn(Collections.emptyList());
+
+		//then
+		BeerImportResultDTO importResult = beerServ.importBeers(Arrays.asList(brahma, skol).iterator());
+
+		assertThat(importResult.getImported(), is(equalTo(2)));
+		verify(beerRepo, times(1)).saveAll(Mockito.anyIterable());
+	}
+
+	@Test
+	void whenImportedBeersContainRegisteredNameThenExceptionShouldBeThrown() {
+		//given
+		BeerDTO brahma = BeerDTOBuilder.builder().build().toBeerDTO();
+
+		//when
+		when(beerRepo.findExistingNames(Mockito.anyCollection())).thenReturn(Collections.singletonList(brahma.getName()));
+
+		//then
+		assertThrows(BeerAlreadyRegisteredException.class, () -> beerServ.importBeers(Collections.singletonList(brahma)));
+		verify(beerRepo, never()).saveAll(Mockito.anyIterable());
+	}
+
+	@Test
+	void whenImportedBeersRepeatANameThenExceptionShouldBeThrown() {
+		//given
+		BeerDTO brahma = BeerDTOBuilder.builder().build().toBeerDTO();
+
+		//then
+		assertThrows(BeerAlreadyRegisteredException.class, () -> beerServ.importBeers(Arrays.asList(brahma, brahma)));
+		verify(beerRepo, never()).saveAll(Mockito.anyIterable());
+	}
+
 	//FindByName Teste
 	@Test
 	void whenValidBeerNameIsGivenTheReturnABeer() throws BeerNotFoundException {
@@ -81,7 +182,8 @@ public class BeerServiceTest {
 		Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
 		
 		//when
-		when(beerRepo.findByName(expectedFoundBeer.getName())).thenReturn(Optional.of(expectedFoundBeer));
+		when(metadataRepo.findByName(expectedFoundBeer.getName())).thenReturn(Optional.of(metadataOf(expectedFoundBeerDTO)));
+		when(beerRepo.findStockStateById(expectedFoundBeer.getId())).thenReturn(Optional.of(stockStateOf(expectedFoundBeer)));
 		
 		//then
 		BeerDTO foundBeerDTO = beerServ.findByName(expectedFoundBeerDTO.getName());
@@ -98,7 +200,7 @@ public class BeerServiceTest {
 		
 		
 		//when
-		when(beerRepo.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.empty());
+		when(metadataRepo.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.empty());
 		
 		//then
 		assertThrows(BeerNotFoundException.class, () -> beerServ.findByName(expectedFoundBeerDTO.getName()));
@@ -135,30 +237,122 @@ public class BeerServiceTest {
 
 	}
 	
+	//Teste - Export
+	@Test
+	void whenExportIsCalledThenEveryBeerIsStreamedAndDetached() {
+		//given
+		BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+		List<BeerDTO> exportedBeers = new ArrayList<>();
+
+		//when
+		when(beerRepo.findPageOrderById(0L, PageRequest.of(0, 500))).thenReturn(Collections.singletonList(expectedBeer));
+
+		//then
+		beerServ.exportAll(exportedBeers::add);
+
+		assertThat(exportedBeers, contains(expectedBeerDTO));
+		verify(entityManager, times(1)).detach(expectedBeer);
+	}
+
+	@Test
+	void whenExportFillsAPageThenTheNextPageIsReadAfterItsLastId() {
+		//given
+		List<Beer> firstPage = new ArrayList<>();
+		for (long id = 1; id <= 500; id++) {
+			firstPage.add(beerMapper.toModel(BeerDTOBuilder.builder().id(id).build().toBeerDTO()));
+		}
+		Beer lastBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(501L).build().toBeerDTO());
+		List<BeerDTO> exportedBeers = new ArrayList<>();
+
+		//when
+		when(beerRepo.findPageOrderById(0L, PageRequest.of(0, 500))).thenReturn(firstPage);
+		when(beerRepo.findPageOrderById(500L, PageRequest.of(0, 500))).thenReturn(Collections.singletonList(lastBeer));
+
+		//then
+		beerServ.exportAll(exportedBeers::add);
+
+		assertThat(exportedBeers, hasSize(501));
+		assertThat(exportedBeers.get(500).getId(), is(equalTo(501L)));
+	}
+
+	//Teste - Keyset pagination
+	@Test
+	void whenListPageIsCalledWithMoreBeersThanSizeThenNextCursorIsReturned() throws InvalidCursorException {
+		//given
+		Beer brahma = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+		Beer skol = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO());
+
+		//when
+		when(beerRepo.findPageOrderByName("", 0L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(brahma, skol));
+		when(beerRepo.findPageOrderByName("Brahma", 1L, PageRequest.of(0, 2))).thenReturn(Collections.singletonList(skol));
+
+		//then
+		BeerPageDTO firstPage = beerServ.listPage(null, 1, BeerSort.NAME);
+		BeerPageDTO secondPage = beerServ.listPage(firstPage.getNextCursor(), 1, BeerSort.NAME);
+
+		assertThat(firstPage.getContent().get(0).getName(), is(equalTo("Brahma")));
+		assertThat(firstPage.getNextCursor(), is(notNullValue()));
+		assertThat(secondPage.getContent().get(0).getName(), is(equalTo("Skol")));
+		assertThat(secondPage.getNextCursor(), is(nullValue()));
+	}
+
+	@Test
+	void whenListPageIsCalledWithSizeAboveLimitThenSizeIsCapped() throws InvalidCursorException {
+		//when
+		when(beerRepo.findPageOrderById(0L, PageRequest.of(0, BeerService.MAX_PAGE_SIZE + 1))).thenReturn(Collections.emptyList());
+
+		//then
+		BeerPageDTO page = beerServ.listPage(null, 1_000_000, BeerSort.ID);
+
+		assertThat(page.getContent(), is(empty()));
+		assertThat(page.getNextCursor(), is(nullValue()));
+	}
+
+	@Test
+	void whenListPageIsCalledWithCursorOfAnotherSortThenExceptionShouldBeThrown() throws InvalidCursorException {
+		//given
+		Beer brahma = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+		Beer skol = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO());
+
+		//when
+		when(beerRepo.findPageOrderById(0L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(brahma, skol));
+
+		//then
+		String idCursor = beerServ.listPage(null, 1, BeerSort.ID).getNextCursor();
+		assertThrows(InvalidCursorException.class, () -> beerServ.listPage(idCursor, 1, BeerSort.BRAND));
+		assertThrows(InvalidCursorException.class, () -> beerServ.listPage("not a cursor", 1, BeerSort.ID));
+	}
+
 	@Test
 	void whenExclusionIsCalledWithValidIdABeerShouldBeDeleted() throws BeerNotFoundException {
 		// given
         BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+        expectedDeletedBeer.setVersion(3L);
         
         //when
-        when(beerRepo.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
-        doNothing().when(beerRepo).deleteById(expectedDeletedBeerDTO.getId());
+        when(metadataRepo.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedDeletedBeerDTO)));
+        when(beerRepo.findStockStateById(expectedDeletedBeerDTO.getId()))
+                .thenReturn(Optional.of(stockStateOf(expectedDeletedBeer)));
+        when(beerRepo.deleteAtVersion(expectedDeletedBeerDTO.getId(), expectedDeletedBeer.getVersion())).thenReturn(1);
         
         //then
         beerServ.deleteById(expectedDeletedBeerDTO.getId());
         
-        verify(beerRepo, times(1)).findById(expectedDeletedBeerDTO.getId());
-        verify(beerRepo, times(1)).deleteById(expectedDeletedBeerDTO.getId());
+        verify(beerRepo, never()).findById(expectedDeletedBeerDTO.getId());
+        verify(beerRepo, times(1)).deleteAtVersion(expectedDeletedBeerDTO.getId(), expectedDeletedBeer.getVersion());
+        verify(warehouseStockRepo, times(1)).deleteByBeerId(expectedDeletedBeerDTO.getId());
 	}
 	
 	@Test
 	void whenExclusionIsCalledWithInvalidIdThenExceptionShouldBeThrow() {
 		//when
-		when(beerRepo.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+		when(metadataRepo.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 		
 		//then
 		assertThrows(BeerNotFoundException.class, () -> beerServ.deleteById(INVALID_BEER_ID));
+		verify(beerRepo, never()).deleteAtVersion(anyLong(), anyLong());
 		
 	}
 	
@@ -166,17 +360,22 @@ public class BeerServiceTest {
     void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
-        
-        //when
-        when(beerRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepo.save(expectedBeer)).thenReturn(expectedBeer);
 
         int quantityToIncrement = 10;
         int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+        //when
+        when(metadataRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedBeerDTO)));
+        when(beerRepo.adjustQuantity(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(1);
+        when(beerRepo.findStockStateById(expectedBeerDTO.getId())).thenReturn(Optional.of(stockStateOf(expectedBeer)));
+
         BeerDTO incrementedBeerDTO = beerServ.increment(expectedBeerDTO.getId(), quantityToIncrement);
 
         assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(expectedQuantityAfterIncrement)));
         assertThat(expectedBeerDTO.getMax(), is(greaterThan(expectedQuantityAfterIncrement)));
+        verify(beerRepo, never()).save(Mockito.any(Beer.class));
+        assertThat(beerServ.getStockAdjustmentStats().getApplied(), is(equalTo(1L)));
     }
 
     @Test
@@ -184,19 +383,38 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
+        int quantityToIncrement = 80;
+        when(metadataRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedBeerDTO)));
+        when(beerRepo.adjustQuantity(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(0);
         when(beerRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
-        int quantityToIncrement = 80;
         assertThrows(BeerStockExceededException.class, () -> beerServ.increment(expectedBeerDTO.getId(), quantityToIncrement));
+        assertThat(beerServ.getStockAdjustmentStats().getRejected(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenIncrementIsCalledAtStaleVersionThenThrowException() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        expectedBeer.setVersion(5L);
+
+        when(metadataRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedBeerDTO)));
+        when(beerRepo.adjustQuantityAtVersion(expectedBeerDTO.getId(), 10, 4L)).thenReturn(0);
+        when(beerRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        assertThrows(BeerVersionMismatchException.class, () -> beerServ.increment(expectedBeerDTO.getId(), 10, 4L));
+        assertThat(beerServ.getStockAdjustmentStats().getRejected(), is(equalTo(1L)));
     }
 
     @Test
     void whenIncrementIsCalledWithInvalidIdThenThrowException() {
         int quantityToIncrement = 10;
 
-        when(beerRepo.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(metadataRepo.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
         assertThrows(BeerNotFoundException.class, () -> beerServ.increment(INVALID_BEER_ID, quantityToIncrement));
+        assertThat(beerServ.getStockAdjustmentStats().getNotFound(), is(equalTo(1L)));
+        verify(beerRepo, never()).adjustQuantity(INVALID_BEER_ID, quantityToIncrement);
     }
     
     @Test
@@ -204,11 +422,14 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepo.save(expectedBeer)).thenReturn(expectedBeer);
-
         int quantityToDecrement = 5;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
+
+        when(metadataRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedBeerDTO)));
+        when(beerRepo.adjustQuantity(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(1);
+        when(beerRepo.findStockStateById(expectedBeerDTO.getId())).thenReturn(Optional.of(stockStateOf(expectedBeer)));
+
         BeerDTO incrementedBeerDTO = beerServ.decrement(expectedBeerDTO.getId(), quantityToDecrement);
 
         assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(expectedQuantityAfterDecrement)));
@@ -220,11 +441,14 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepo.save(expectedBeer)).thenReturn(expectedBeer);
-
         int quantityToDecrement = 10;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
+
+        when(metadataRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedBeerDTO)));
+        when(beerRepo.adjustQuantity(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(1);
+        when(beerRepo.findStockStateById(expectedBeerDTO.getId())).thenReturn(Optional.of(stockStateOf(expectedBeer)));
+
         BeerDTO incrementedBeerDTO = beerServ.decrement(expectedBeerDTO.getId(), quantityToDecrement);
 
         assertThat(expectedQuantityAfterDecrement, is(equalTo(0)));
@@ -236,18 +460,124 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
+        int quantityToDecrement = 80;
+        when(metadataRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(metadataOf(expectedBeerDTO)));
+        when(beerRepo.adjustQuantity(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(0);
         when(beerRepo.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
-        int quantityToDecrement = 80;
-        assertThrows(BeerStockExceededException.class, () -> beerServ.decrement(expectedBeerDTO.getId(), quantityToDecrement));
+        BeerStockExceededException exception = assertThrows(BeerStockExceededException.class,
+                () -> beerServ.decrement(expectedBeerDTO.getId(), quantityToDecrement));
+        assertThat(exception.getRequestedDelta(), is(equalTo(-quantityToDecrement)));
+        assertThat(exception.getQuantity(), is(equalTo(expectedBeer.getQuantity())));
+        assertThat(exception.getMax(), is(equalTo(expectedBeer.getMax())));
+        assertThat(exception.getStackTrace().length, is(equalTo(0)));
     }
 
     @Test
     void whenDecrementIsCalledWithInvalidIdThenThrowException() {
         int quantityToDecrement = 10;
 
-        when(beerRepo.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(metadataRepo.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
         assertThrows(BeerNotFoundException.class, () -> beerServ.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
+
+    @Test
+    void whenStockMovementsAreAppliedThenEachMovementGetsItsOwnResult() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        List<StockMovementDTO> movements = Arrays.asList(
+                StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(30).build(),
+                StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(20).build(),
+                StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(-45).build(),
+                StockMovementDTO.builder().id(INVALID_BEER_ID + 1).delta(1).build(),
+                StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(-1).build());
+
+        when(beerRepo.findAllByIdForUpdate(Arrays.asList(expectedBeerDTO.getId(), INVALID_BEER_ID + 1)))
+                .thenReturn(Collections.singletonList(expectedBeer));
+
+        List<StockMovementResultDTO> results = beerServ.applyMovements(movements);
+
+        assertThat(results.get(0).getStatus(), is(equalTo(StockMovementStatus.APPLIED)));
+        assertThat(results.get(0).getQuantity(), is(equalTo(40)));
+        assertThat(results.get(1).getStatus(), is(equalTo(StockMovementStatus.EXCEEDS_MAX)));
+        assertThat(results.get(2).getStatus(), is(equalTo(StockMovementStatus.BELOW_ZERO)));
+        assertThat(results.get(3).getStatus(), is(equalTo(StockMovementStatus.NOT_FOUND)));
+        assertThat(results.get(4).getStatus(), is(equalTo(StockMovementStatus.APPLIED)));
+        assertThat(expectedBeer.getQuantity(), is(equalTo(39)));
+    }
+
+    @Test
+    void whenStockMovementsAreAppliedThenEachChangeIsPublishedWithTheVersionItWrote() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        expectedBeer.setVersion(0L);
+
+        when(beerRepo.findAllByIdForUpdate(Collections.singletonList(expectedBeerDTO.getId())))
+                .thenReturn(Collections.singletonList(expectedBeer));
+        doAnswer(invocation -> {
+            expectedBeer.setVersion(expectedBeer.getVersion() + 1);
+            return null;
+        }).when(entityManager).flush();
+
+        beerServ.applyMovements(Arrays.asList(
+                StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(1).build(),
+                StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(2).build()));
+
+        ArgumentCaptor<BeerChangedEvent> events = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0).getBeer().getVersion(), is(equalTo(1L)));
+        assertThat(events.getAllValues().get(1).getBeer().getVersion(), is(equalTo(2L)));
+    }
+
+    @Test
+    void whenStockMovementsIncludeABufferedBeerThenItIsNotAdjusted() throws Exception {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(stockBuffer.isBuffered(expectedBeerDTO.getId())).thenReturn(true);
+
+        List<StockMovementResultDTO> results = beerServ.applyMovements(
+                Collections.singletonList(StockMovementDTO.builder().id(expectedBeerDTO.getId()).delta(5).build()));
+
+        assertThat(results.get(0).getStatus(), is(equalTo(StockMovementStatus.BUFFERED)));
+        verify(stockBuffer, never()).adjust(any(), anyInt(), any());
+    }
+
+    @Test
+    void whenBufferedBeerIsIncrementedThenStockBufferIsUsed() throws Exception {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().quantity(20).build().toBeerDTO();
+
+        when(stockBuffer.isBuffered(expectedBeerDTO.getId())).thenReturn(true);
+        when(stockBuffer.adjust(expectedBeerDTO.getId(), 10, null)).thenReturn(expectedBeerDTO);
+
+        BeerDTO incrementedBeerDTO = beerServ.increment(expectedBeerDTO.getId(), 10);
+
+        assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(20)));
+        verify(beerRepo, never()).adjustQuantity(expectedBeerDTO.getId(), 10);
+    }
+
+    private static BeerMetadata metadataOf(BeerDTO beerDTO) {
+        return new BeerMetadata(beerDTO.getId(), beerDTO.getName(), beerDTO.getBrand(), beerDTO.getMax(), beerDTO.getType());
+    }
+
+    private static BeerStockState stockStateOf(Beer beer) {
+        return new BeerStockState() {
+
+            @Override
+            public Integer getQuantity() {
+                return beer.getQuantity();
+            }
+
+            @Override
+            public Long getVersion() {
+                return beer.getVersion();
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return beer.getUpdatedAt();
+            }
+        };
+    }
 }
@@ -0,0 +1,121 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.BeerWarehouseStockDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerWarehouseStockExceededException;
+import com.pms.dio.model.Beer;
+import com.pms.dio.repository.BeerRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:warehouses;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class BeerWarehouseServiceTest {
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private BeerWarehouseService warehouseService;
+
+	@Autowired
+	private BeerRepository beerRepo;
+
+	private BeerDTO beer;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		beer = beerServ.createBeer(BeerDTO.builder()
+				.name("Warehoused " + System.nanoTime())
+				.brand("Warehouse")
+				.max(50)
+				.quantity(10)
+				.type(BeerType.LAGER)
+				.build());
+	}
+
+	@Test
+	void whenWarehouseIsIncrementedThenBeerTotalAndAllocatedUnitsFollow() throws Exception {
+		warehouseService.increment(beer.getId(), "north", 20);
+		BeerWarehouseStockDTO south = warehouseService.increment(beer.getId(), "south", 5);
+
+		assertThat(south.getQuantity(), is(equalTo(5)));
+		assertThat(beerServ.findByName(beer.getName()).getQuantity(), is(equalTo(35)));
+		assertThat(beerRepo.findById(beer.getId()).get().getAllocated(), is(equalTo(25)));
+	}
+
+	@Test
+	void whenWarehouseIncrementExceedsMaxThenLocationIsRolledBack() throws Exception {
+		warehouseService.increment(beer.getId(), "north", 20);
+
+		assertThrows(BeerStockExceededException.class, () -> warehouseService.increment(beer.getId(), "north", 21));
+
+		assertThat(quantities(), contains("north=20"));
+		assertThat(beerRepo.findById(beer.getId()).get().getQuantity(), is(equalTo(30)));
+	}
+
+	@Test
+	void whenWarehouseDecrementExceedsLocationThenNothingChanges() throws Exception {
+		warehouseService.increment(beer.getId(), "north", 5);
+
+		assertThrows(BeerWarehouseStockExceededException.class, () -> warehouseService.decrement(beer.getId(), "north", 6));
+		warehouseService.decrement(beer.getId(), "north", 5);
+
+		Beer decrementedBeer = beerRepo.findById(beer.getId()).get();
+		assertThat(decrementedBeer.getQuantity(), is(equalTo(10)));
+		assertThat(decrementedBeer.getAllocated(), is(equalTo(0)));
+	}
+
+	@Test
+	void whenStockIsTransferredThenLocationsChangeButBeerRowIsUntouched() throws Exception {
+		warehouseService.increment(beer.getId(), "north", 20);
+		Beer before = beerRepo.findById(beer.getId()).get();
+
+		warehouseService.transfer(beer.getId(), "north", "east", 8);
+		warehouseService.transfer(beer.getId(), "east", "west", 3);
+
+		assertThat(quantities(), contains("east=5", "north=12", "west=3"));
+		Beer after = beerRepo.findById(beer.getId()).get();
+		assertThat(after.getVersion(), is(equalTo(before.getVersion())));
+		assertThat(after.getAllocated(), is(equalTo(20)));
+	}
+
+	@Test
+	void whenTransferExceedsSourceThenTargetIsRolledBack() throws Exception {
+		warehouseService.increment(beer.getId(), "north", 5);
+
+		assertThrows(BeerWarehouseStockExceededException.class, () -> warehouseService.transfer(beer.getId(), "north", "east", 6));
+
+		assertThat(quantities(), contains("north=5"));
+	}
+
+	@Test
+	void whenBeerIsDeletedThenItsLocationsAreRemoved() throws Exception {
+		warehouseService.increment(beer.getId(), "north", 5);
+
+		beerServ.deleteById(beer.getId());
+
+		assertThrows(BeerNotFoundException.class, () -> warehouseService.listStock(beer.getId()));
+		assertThrows(BeerNotFoundException.class, () -> warehouseService.increment(beer.getId(), "north", 1));
+	}
+
+	private List<String> quantities() throws BeerNotFoundException {
+		return warehouseService.listStock(beer.getId()).stream()
+				.map(stock -> stock.getWarehouse() + "=" + stock.getQuantity())
+				.collect(Collectors.toList());
+	}
+}
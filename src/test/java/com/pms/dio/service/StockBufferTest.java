@@ -0,0 +1,253 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pms.dio.builder.BeerDTOBuilder;
+import com.pms.dio.config.StockBufferProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.exception.BeerNotFoundException;
+import com.pms.dio.exception.BeerStockExceededException;
+import com.pms.dio.exception.BeerVersionMismatchException;
+import com.pms.dio.mapper.BeerMapper;
+import com.pms.dio.model.Beer;
+import com.pms.dio.repository.BeerRepository;
+import com.pms.dio.repository.BeerStockState;
+
+@ExtendWith(MockitoExtension.class)
+public class StockBufferTest {
+
+	private static final long BUFFERED_BEER_ID = 1L;
+
+	private static final String UPDATE_QUANTITY_SQL = "update beer set quantity = ?, version = ?, updated_at = ? where id = ? and version < ?";
+
+	private static final long BUFFERED_BEER_VERSION = 3L;
+
+	private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+	@TempDir
+	Path journalDir;
+
+	@Spy
+	private StockBufferProperties properties = new StockBufferProperties();
+
+	@Mock
+	private BeerRepository beerRepo;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@InjectMocks
+	private StockBuffer stockBuffer;
+
+	private Beer bufferedBeer;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		properties.setEnabled(true);
+		properties.setBeerIds(Collections.singleton(BUFFERED_BEER_ID));
+		properties.setJournalDir(journalDir);
+		bufferedBeer = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+		bufferedBeer.setVersion(BUFFERED_BEER_VERSION);
+		bufferedBeer.setUpdatedAt(Instant.now());
+		stockBuffer.recover();
+	}
+
+	@Test
+	void whenBufferedBeerIsAdjustedThenStockIsKeptInMemoryAndJournaled() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+
+		stockBuffer.adjust(BUFFERED_BEER_ID, 15, null);
+		BeerDTO adjustedBeerDTO = stockBuffer.adjust(BUFFERED_BEER_ID, -5, null);
+
+		assertThat(adjustedBeerDTO.getQuantity(), is(equalTo(20)));
+		assertThat(adjustedBeerDTO.getVersion(), is(equalTo(BUFFERED_BEER_VERSION + 2)));
+		assertThat(Files.size(onlySegment()), is(equalTo(2L * StockJournal.RECORD_SIZE)));
+		verify(beerRepo, times(1)).findById(BUFFERED_BEER_ID);
+		verify(jdbcTemplate, never()).batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList());
+	}
+
+	@Test
+	void whenJournalAppendFailsThenAdjustmentIsNotAppliedAndCanBeRetried() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+		when(jdbcTemplate.batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList())).thenReturn(new int[] { 1 });
+		stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+		stockBuffer.flush();
+		Files.delete(journalDir);
+
+		assertThrows(UncheckedIOException.class, () -> stockBuffer.adjust(BUFFERED_BEER_ID, 5, null));
+		Files.createDirectories(journalDir);
+		BeerDTO retriedBeerDTO = stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+
+		assertThat(retriedBeerDTO.getQuantity(), is(equalTo(20)));
+		assertThat(retriedBeerDTO.getVersion(), is(equalTo(BUFFERED_BEER_VERSION + 2)));
+	}
+
+	@Test
+	void whenBufferedBeerWouldLeaveItsBoundsThenExceptionShouldBeThrown() {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+
+		assertThrows(BeerStockExceededException.class, () -> stockBuffer.adjust(BUFFERED_BEER_ID, 41, null));
+		assertThrows(BeerStockExceededException.class, () -> stockBuffer.adjust(BUFFERED_BEER_ID, -11, null));
+	}
+
+	@Test
+	void whenBufferedBeerWouldDropBelowItsHoldsThenExceptionShouldCarryThem() {
+		bufferedBeer.setReserved(4);
+		bufferedBeer.setAllocated(3);
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+
+		BeerStockExceededException exception = assertThrows(BeerStockExceededException.class,
+				() -> stockBuffer.adjust(BUFFERED_BEER_ID, -4, null));
+
+		assertThat(exception.getReserved(), is(equalTo(4)));
+		assertThat(exception.getAllocated(), is(equalTo(3)));
+		assertThat(exception.getQuantity(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenBufferedBeerIsAdjustedAtAStaleVersionThenExceptionShouldBeThrown() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+		stockBuffer.adjust(BUFFERED_BEER_ID, 1, BUFFERED_BEER_VERSION);
+
+		assertThrows(BeerVersionMismatchException.class, () -> stockBuffer.adjust(BUFFERED_BEER_ID, 1, BUFFERED_BEER_VERSION));
+		assertThat(stockBuffer.adjust(BUFFERED_BEER_ID, 1, BUFFERED_BEER_VERSION + 1).getQuantity(), is(equalTo(12)));
+	}
+
+	@Test
+	void whenBufferedBeerIsNotRegisteredThenExceptionShouldBeThrown() {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.empty());
+
+		assertThrows(BeerNotFoundException.class, () -> stockBuffer.adjust(BUFFERED_BEER_ID, 1, null));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void whenBufferIsFlushedThenLatestQuantityIsWrittenAndJournalIsDiscarded() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+		when(jdbcTemplate.batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList())).thenReturn(new int[] { 1 });
+		stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+		stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+
+		stockBuffer.flush();
+		stockBuffer.flush();
+
+		ArgumentCaptor<List<Object[]>> quantities = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(eq(UPDATE_QUANTITY_SQL), quantities.capture());
+		assertFlushed(quantities.getValue().get(0), 20, BUFFERED_BEER_VERSION + 2);
+		assertThat(segments(), is(empty()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void whenBufferRestartsWithoutFlushThenJournaledQuantityIsRecovered() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+		when(jdbcTemplate.batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList())).thenReturn(new int[] { 1 });
+		stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+		stockBuffer.adjust(BUFFERED_BEER_ID, -8, null);
+
+		stockBuffer.recover();
+
+		ArgumentCaptor<List<Object[]>> quantities = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(eq(UPDATE_QUANTITY_SQL), quantities.capture());
+		assertFlushed(quantities.getValue().get(0), 7, BUFFERED_BEER_VERSION + 2);
+		assertThat(segments(), is(empty()));
+	}
+
+	@Test
+	void whenRowWasChangedOutsideTheBufferThenJournalIsKeptAndFlushIsRetried() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+		when(jdbcTemplate.batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList())).thenReturn(new int[] { 0 });
+		when(beerRepo.findStockStateById(BUFFERED_BEER_ID)).thenReturn(Optional.of(stockStateAt(BUFFERED_BEER_VERSION + 5)));
+		stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+
+		stockBuffer.flush();
+		stockBuffer.flush();
+
+		verify(jdbcTemplate, times(2)).batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList());
+		assertThat(segments(), is(not(empty())));
+	}
+
+	@Test
+	void whenRecoveredValueIsAlreadyInTheDatabaseThenJournalIsDiscarded() throws Exception {
+		when(beerRepo.findById(BUFFERED_BEER_ID)).thenReturn(Optional.of(bufferedBeer));
+		when(jdbcTemplate.batchUpdate(eq(UPDATE_QUANTITY_SQL), anyList())).thenReturn(new int[] { 0 });
+		when(beerRepo.findStockStateById(BUFFERED_BEER_ID)).thenReturn(Optional.of(stockStateAt(BUFFERED_BEER_VERSION + 1)));
+		stockBuffer.adjust(BUFFERED_BEER_ID, 5, null);
+
+		stockBuffer.recover();
+
+		assertThat(segments(), is(empty()));
+	}
+
+	private static BeerStockState stockStateAt(long version) {
+		return new BeerStockState() {
+
+			@Override
+			public Integer getQuantity() {
+				return 0;
+			}
+
+			@Override
+			public Long getVersion() {
+				return version;
+			}
+
+			@Override
+			public Instant getUpdatedAt() {
+				return Instant.now();
+			}
+		};
+	}
+
+	private static void assertFlushed(Object[] values, int quantity, long version) {
+		assertThat(values[0], is(equalTo(quantity)));
+		assertThat(values[1], is(equalTo(version)));
+		assertThat(values[3], is(equalTo(BUFFERED_BEER_ID)));
+		assertThat(values[4], is(equalTo(version)));
+	}
+
+	private Path onlySegment() throws Exception {
+		List<Path> segments = segments();
+		assertThat(segments.size(), is(equalTo(1)));
+		return segments.get(0);
+	}
+
+	private List<Path> segments() throws Exception {
+		try (Stream<Path> files = Files.list(journalDir)) {
+			return files.collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package com.pms.dio.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.pms.dio.config.StockLedgerProperties;
+import com.pms.dio.dto.BeerDTO;
+import com.pms.dio.dto.StockAsOfDTO;
+import com.pms.dio.dto.StockLedgerEntryDTO;
+import com.pms.dio.enums.BeerType;
+import com.pms.dio.exception.BeerNotFoundException;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"beer.ledger.snapshot-lag=PT0S" })
+public class StockLedgerTest {
+
+	@Autowired
+	private BeerService beerServ;
+
+	@Autowired
+	private StockLedger stockLedger;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private StockLedgerProperties properties;
+
+	private BeerDTO beer;
+
+	private Instant beforeCreation;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		beforeCreation = Instant.now();
+		Thread.sleep(5);
+		beer = beerServ.createBeer(BeerDTO.builder()
+				.name("Ledger " + System.nanoTime())
+				.brand("Ledger")
+				.max(50)
+				.quantity(10)
+				.type(BeerType.LAGER)
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+		properties.setSnapshotLag(Duration.ZERO);
+	}
+
+	@Test
+	void whenStockChangesThenEveryChangeIsAppendedWithItsResultingQuantity() throws Exception {
+		beerServ.increment(beer.getId(), 5);
+		beerServ.decrement(beer.getId(), 3);
+
+		assertThat(entries().stream().map(entry -> entry.getDelta() + "=" + entry.getQuantity()).collect(Collectors.toList()),
+				contains("10=10", "5=15", "-3=12"));
+		assertThat(entries().get(0).getActor(), is(equalTo("system")));
+	}
+
+	@Test
+	void whenStockChangeIsRolledBackThenNoEntryIsAppended() {
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				beerServ.increment(beer.getId(), 5);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			status.setRollbackOnly();
+		});
+
+		assertThat(entries().stream().map(entry -> entry.getDelta() + "=" + entry.getQuantity()).collect(Collectors.toList()),
+				contains("10=10"));
+	}
+
+	@Test
+	void whenRequestCarriesAnActorThenItIsRecorded() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(StockLedger.ACTOR_HEADER, "alice");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		beerServ.increment(beer.getId(), 1);
+
+		assertThat(entries().get(1).getActor(), is(equalTo("alice")));
+	}
+
+	@Test
+	void whenStockAsOfIsAskedThenSnapshotAndLaterEntriesAreReplayed() throws Exception {
+		beerServ.increment(beer.getId(), 5);
+		Instant afterIncrement = Instant.now();
+		Thread.sleep(5);
+		beerServ.decrement(beer.getId(), 3);
+
+		assertThat(stockLedger.stockAsOf(beer.getId(), afterIncrement).getQuantity(), is(equalTo(15)));
+		StockAsOfDTO withoutSnapshot = stockLedger.stockAsOf(beer.getId(), Instant.now());
+		assertThat(withoutSnapshot.getQuantity(), is(equalTo(12)));
+		assertThat(withoutSnapshot.getSnapshotTakenAt(), is(nullValue()));
+		assertThat(withoutSnapshot.getReplayedEntries(), is(equalTo(3L)));
+
+		stockLedger.snapshot();
+		Thread.sleep(5);
+		beerServ.increment(beer.getId(), 4);
+
+		StockAsOfDTO fromSnapshot = stockLedger.stockAsOf(beer.getId(), Instant.now());
+		assertThat(fromSnapshot.getQuantity(), is(equalTo(16)));
+		assertThat(fromSnapshot.getSnapshotTakenAt(), is(notNullValue()));
+		assertThat(fromSnapshot.getReplayedEntries(), is(equalTo(1L)));
+		assertThat(stockLedger.stockAsOf(beer.getId(), afterIncrement).getQuantity(), is(equalTo(15)));
+	}
+
+	@Test
+	void whenStockAsOfIsAskedBeforeTheBeerExistedThenBeerIsNotFound() {
+		assertThrows(BeerNotFoundException.class, () -> stockLedger.stockAsOf(beer.getId(), beforeCreation));
+	}
+
+	@Test
+	void whenLedgerIsReplayedThenItMatchesTheCurrentStock() throws Exception {
+		beerServ.increment(beer.getId(), 7);
+		stockLedger.snapshot();
+		beerServ.decrement(beer.getId(), 2);
+
+		assertThat(stockLedger.replay().get(beer.getId()), is(equalTo(15)));
+
+		beerServ.deleteById(beer.getId());
+
+		assertThat(stockLedger.replay().get(beer.getId()), is(equalTo(0)));
+	}
+
+	@Test
+	void whenAnEarlierEntryCommitsAfterASnapshotThenItIsStillReplayed() throws Exception {
+		properties.setSnapshotLag(Duration.ofSeconds(30));
+		CountDownLatch inserted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> slowWriter = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("insert into stock_ledger_entry (beer_id, delta, quantity, actor, occurred_at) values (?, ?, ?, ?, ?)",
+					beer.getId(), 5, 15, "slow", Timestamp.from(Instant.now()));
+			inserted.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		inserted.await();
+
+		beerServ.increment(beer.getId(), 3);
+		stockLedger.snapshot();
+		release.countDown();
+		slowWriter.get(10, TimeUnit.SECONDS);
+
+		assertThat(stockLedger.replay().get(beer.getId()), is(equalTo(18)));
+		properties.setSnapshotLag(Duration.ZERO);
+		stockLedger.snapshot();
+		assertThat(stockLedger.replay().get(beer.getId()), is(equalTo(18)));
+	}
+
+	private List<StockLedgerEntryDTO> entries() {
+		return stockLedger.entries(beer.getId(), 0, 100);
+	}
+}